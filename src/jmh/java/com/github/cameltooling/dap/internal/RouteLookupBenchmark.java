@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Lookups in the routes retrieved from the Camel application: the resolution of the line of a breakpoint and the
+ * detection of the last node of a route when stepping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RouteLookupBenchmark {
+
+	private static final int NODES_PER_ROUTE = 10;
+
+	@Param({ "10", "1000", "10000" })
+	int nodeCount;
+
+	private Document routes;
+	private int middleLine;
+	private String middleNodeId;
+
+	/**
+	 * Creates routes similar to the ones dumped by Camel, with a node per line.
+	 */
+	@Setup
+	public void createRoutes() throws Exception {
+		routes = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		Element routesElement = routes.createElement("routes");
+		routes.appendChild(routesElement);
+		Element route = null;
+		for (int i = 0; i < nodeCount; i++) {
+			if (i % NODES_PER_ROUTE == 0) {
+				route = routes.createElement("route");
+				route.setAttribute("id", "route" + i);
+				routesElement.appendChild(route);
+			}
+			Element node = routes.createElement(i % NODES_PER_ROUTE == 0 ? "from" : "log");
+			node.setAttribute("id", "node" + i);
+			node.setAttribute("sourceLineNumber", Integer.toString(i + 1));
+			route.appendChild(node);
+		}
+		middleLine = nodeCount / 2 + 1;
+		middleNodeId = "node" + nodeCount / 2;
+	}
+
+	@Benchmark
+	public Node findNodeAtLine() throws Exception {
+		return CamelDebugAdapterServer.findNodeAtLine(routes, middleLine);
+	}
+
+	@Benchmark
+	public Node findNodeAtMissingLine() throws Exception {
+		return CamelDebugAdapterServer.findNodeAtLine(routes, nodeCount + 1);
+	}
+
+	@Benchmark
+	public boolean isLastInRoute() {
+		return BacklogDebuggerConnectionManager.isLastInroute(routes, middleNodeId);
+	}
+
+}
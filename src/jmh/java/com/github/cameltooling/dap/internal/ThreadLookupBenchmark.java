@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lsp4j.debug.Variable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.cameltooling.dap.internal.model.CamelExchangeThread;
+import com.github.cameltooling.dap.internal.types.EventMessage;
+import com.github.cameltooling.dap.internal.types.UnmarshallerEventMessage;
+
+/**
+ * Lookups of the threads and of the variables done by the requests of the client, with many suspended exchanges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ThreadLookupBenchmark {
+
+	@Param({ "10", "1000" })
+	int threadCount;
+
+	private CamelDebugAdapterServer server;
+
+	@Setup
+	public void createThreads() {
+		server = new CamelDebugAdapterServer();
+		BacklogDebuggerConnectionManager connectionManager = server.getConnectionManager();
+		for (int i = 1; i <= threadCount; i++) {
+			String nodeId = "node" + i;
+			EventMessage eventMessage = new UnmarshallerEventMessage().getUnmarshalledEventMessage(createDump(i, nodeId));
+			CamelExchangeThread camelThread = new CamelExchangeThread(i, nodeId, eventMessage, null);
+			// As once the client has displayed the stack trace of each thread
+			camelThread.getStackFrame().createScopes();
+			connectionManager.addCamelExchangeThread(camelThread);
+		}
+	}
+
+	private static String createDump(int index, String nodeId) {
+		String exchangeId = String.format("7F4C7BF7F3898E7-%016d", index);
+		return "<backlogTracerEventMessage>\n"
+				+ "  <uid>" + index + "</uid>\n"
+				+ "  <timestamp>2023-11-20T14:20:26.971+0100</timestamp>\n"
+				+ "  <routeId>a-route-id</routeId>\n"
+				+ "  <toNode>" + nodeId + "</toNode>\n"
+				+ "  <exchangeId>" + exchangeId + "</exchangeId>\n"
+				+ "  <message exchangeId=\"" + exchangeId + "\">\n"
+				+ "    <headers>\n"
+				+ "      <header key=\"header1\" type=\"java.lang.String\">value of header 1</header>\n"
+				+ "    </headers>\n"
+				+ "    <body type=\"java.lang.String\">a body</body>\n"
+				+ "  </message>\n"
+				+ "</backlogTracerEventMessage>\n";
+	}
+
+	@TearDown
+	public void shutdown() {
+		server.getControlRequestExecutor().shutdown();
+		server.getDataRequestExecutor().shutdown();
+	}
+
+	@Benchmark
+	public Optional<org.eclipse.lsp4j.debug.Thread> findThread() {
+		return server.findThread(threadCount / 2 + 1);
+	}
+
+	@Benchmark
+	public Optional<org.eclipse.lsp4j.debug.Thread> findMissingThread() {
+		return server.findThread(-1);
+	}
+
+	@Benchmark
+	public Set<org.eclipse.lsp4j.debug.Thread> allThreads() {
+		return server.getConnectionManager().getAllThreads();
+	}
+
+	@Benchmark
+	public Set<Variable> collectVariables() {
+		return server.collectVariables(-1);
+	}
+
+}
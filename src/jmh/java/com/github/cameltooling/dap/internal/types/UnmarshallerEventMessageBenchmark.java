@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.types;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of the messages dumped by the backlog debugger, done on each stop and for each scope displayed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UnmarshallerEventMessageBenchmark {
+
+	@Param({ "100", "10000", "1000000" })
+	int bodySize;
+
+	@Param({ "1", "10", "100" })
+	int headerCount;
+
+	private String xmlDump;
+
+	@Setup
+	public void createDump() {
+		StringBuilder xml = new StringBuilder();
+		xml.append("<backlogTracerEventMessage>\n")
+			.append("  <uid>1</uid>\n")
+			.append("  <timestamp>2023-11-20T14:20:26.971+0100</timestamp>\n")
+			.append("  <routeId>a-route-id</routeId>\n")
+			.append("  <toNode>a-node-id</toNode>\n")
+			.append("  <exchangeId>7F4C7BF7F3898E7-0000000000000000</exchangeId>\n")
+			.append("  <message exchangeId=\"7F4C7BF7F3898E7-0000000000000000\">\n")
+			.append("    <exchangeProperties>\n")
+			.append("      <exchangeProperty key=\"property1\" type=\"java.lang.String\">value of property 1</exchangeProperty>\n")
+			.append("    </exchangeProperties>\n")
+			.append("    <headers>\n");
+		for (int i = 0; i < headerCount; i++) {
+			xml.append("      <header key=\"header").append(i).append("\" type=\"java.lang.String\">value of header ").append(i).append("</header>\n");
+		}
+		xml.append("    </headers>\n")
+			.append("    <body type=\"java.lang.String\">").append("a".repeat(bodySize)).append("</body>\n")
+			.append("  </message>\n")
+			.append("</backlogTracerEventMessage>\n");
+		xmlDump = xml.toString();
+	}
+
+	@Benchmark
+	public EventMessage unmarshal() {
+		return new UnmarshallerEventMessage().getUnmarshalledEventMessage(xmlDump);
+	}
+
+}
@@ -20,22 +20,27 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import javax.management.InstanceNotFoundException;
-import javax.management.IntrospectionException;
 import javax.management.JMX;
 import javax.management.MBeanServerConnection;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
-import javax.management.ReflectionException;
 import javax.management.remote.JMXConnector;
 import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
@@ -65,9 +70,29 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
+import com.github.cameltooling.dap.internal.concurrent.BoundedParallelism;
+import com.github.cameltooling.dap.internal.concurrent.ExponentialBackoff;
+import com.github.cameltooling.dap.internal.jfr.BreakpointInstallEvent;
+import com.github.cameltooling.dap.internal.jfr.MessageDumpEvent;
+import com.github.cameltooling.dap.internal.jfr.PollEvent;
+import com.github.cameltooling.dap.internal.jfr.RouteLookupEvent;
+import com.github.cameltooling.dap.internal.jmx.BacklogDebuggerPoller;
+import com.github.cameltooling.dap.internal.jmx.BacklogDebuggerPoller.SuspendedBreakpoints;
+import com.github.cameltooling.dap.internal.jmx.ConnectionSupervisor;
+import com.github.cameltooling.dap.internal.jmx.DegradedConnectionException;
+import com.github.cameltooling.dap.internal.jmx.GuardedConnection;
+import com.github.cameltooling.dap.internal.jmx.JmxCallMetrics;
+import com.github.cameltooling.dap.internal.jmx.JmxBacklogDebuggerPoller;
+import com.github.cameltooling.dap.internal.jmx.JolokiaBacklogDebuggerPoller;
+import com.github.cameltooling.dap.internal.jmx.JolokiaConnector;
+import com.github.cameltooling.dap.internal.jmx.RouteCatalog;
 import com.github.cameltooling.dap.internal.model.CamelBreakpoint;
 import com.github.cameltooling.dap.internal.model.CamelExchangeThread;
+import com.github.cameltooling.dap.internal.model.CamelExpression;
 import com.github.cameltooling.dap.internal.model.CamelRouteDefinitionThread;
+import com.github.cameltooling.dap.internal.model.CamelStackFrame;
+import com.github.cameltooling.dap.internal.model.WatchExpressions;
+import com.github.cameltooling.dap.internal.requests.ResumeExchangesArguments;
 import com.github.cameltooling.dap.internal.types.EventMessage;
 import com.github.cameltooling.dap.internal.types.UnmarshallerEventMessage;
 import com.sun.tools.attach.VirtualMachine;
@@ -76,26 +101,105 @@ public class BacklogDebuggerConnectionManager {
 
 	private static final String OBJECTNAME_BACKLOGDEBUGGER = "org.apache.camel:context=*,type=tracer,name=BacklogDebugger";
 	private static final String OBJECTNAME_CAMELCONTEXT = "org.apache.camel:context=*,type=context,name=*";
-	private static final String OBJECTNAME_CAMELROUTES = "org.apache.camel:context=*,type=routes,name=*";
 	public static final String DEFAULT_JMX_URI = "service:jmx:rmi:///jndi/rmi://localhost:1099/jmxrmi/camel";
 	private static final Logger LOGGER = LoggerFactory.getLogger(BacklogDebuggerConnectionManager.class);
 
 	public static final String ATTACH_PARAM_PID = "attach_pid";
 	public static final String ATTACH_PARAM_JMX_URL = "attach_jmx_url";
+	/**
+	 * Url of the Jolokia agent of the Camel application, for instance http://localhost:8778/jolokia/. When provided,
+	 * it is used instead of the JMX url.
+	 */
+	public static final String ATTACH_PARAM_JOLOKIA_URL = "attach_jolokia_url";
+	/**
+	 * Number of exchanges newly suspended at the same time above which they are notified with a single stopped event
+	 * and their messages are retrieved only when their thread is opened.
+	 */
+	public static final String ATTACH_PARAM_SUSPENSION_STORM_THRESHOLD = "suspension_storm_threshold";
+	public static final int DEFAULT_SUSPENSION_STORM_THRESHOLD = 20;
+	/**
+	 * Maximum number of routes suspended or resumed at the same time when pausing or resuming all the routes.
+	 */
+	private static final int ROUTE_OPERATIONS_PARALLELISM = 8;
+	/**
+	 * Maximum number of watch expressions evaluated at the same time on a newly suspended exchange, when the calls
+	 * cannot be sent in a single round trip.
+	 */
+	private static final int WATCH_EVALUATIONS_PARALLELISM = 4;
+	/**
+	 * Maximum number of stack frames with variables and evaluations computed in background, the prefetch of the
+	 * oldest one is cancelled beyond, for instance during a storm of suspended exchanges.
+	 */
+	private static final int MAX_PREFETCHED_STACK_FRAMES = 8;
+	/**
+	 * Deadline in milliseconds of each JMX call, the debugged application is considered as not responding beyond.
+	 */
+	public static final String ATTACH_PARAM_JMX_CALL_TIMEOUT = "jmx_call_timeout";
+	public static final int DEFAULT_JMX_CALL_TIMEOUT_MILLIS = 10000;
+	/**
+	 * Interval in milliseconds between two checks of the suspended exchanges.
+	 */
+	public static final String ATTACH_PARAM_POLL_INTERVAL = "poll_interval";
+	public static final int DEFAULT_POLL_INTERVAL_MILLIS = 1000;
+	/**
+	 * Duration in milliseconds after which the thread of an exchange which has stepped without reaching another node is
+	 * removed, the exchange being considered as finished.
+	 */
+	public static final String ATTACH_PARAM_FINISHED_EXCHANGE_GRACE_PERIOD = "finished_exchange_grace_period";
+	public static final int DEFAULT_FINISHED_EXCHANGE_GRACE_PERIOD_MILLIS = 30000;
+	private static final int CIRCUIT_FAILURE_THRESHOLD = 3;
+	private static final long CIRCUIT_OPEN_DURATION_MILLIS = 5000;
+	private static final long RECONNECT_INITIAL_DELAY_MILLIS = 200;
+	private static final long RECONNECT_MAX_DELAY_MILLIS = 30000;
+	private static final String CAMEL_LANGUAGE_SIMPLE = "simple";
+	private static final long JMX_CALL_METRICS_LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+	/**
+	 * Notified exchange id of the nodes whose exchange has not been retrieved yet.
+	 */
+	private static final String UNKNOWN_EXCHANGE_ID = "";
 
 	private volatile JMXConnector jmxConnector;
 	private volatile MBeanServerConnection mbeanConnection;
+	private volatile RouteCatalog routeCatalog;
+	private volatile ConnectionSupervisor connectionSupervisor;
+	private volatile String jmxAddress;
+	private volatile boolean debuggerAttached;
 	private volatile ManagedBacklogDebuggerMBean backlogDebugger;
+	private volatile BacklogDebuggerPoller debuggerPoller;
 	private volatile Document routesDOMDocument;
 	private volatile IDebugProtocolClient client;
-	private final Set<String> notifiedSuspendedBreakpointIds = ConcurrentHashMap.newKeySet();
-	private final Set<CamelExchangeThread> camelExchangeThreads = ConcurrentHashMap.newKeySet();
+	/**
+	 * The id of the exchange notified as suspended for each node id. The backlog debugger suspends at most one exchange
+	 * per node, the other exchanges reaching the node are not suspended.
+	 */
+	private final Map<String, String> notifiedSuspendedExchangeIds = new ConcurrentHashMap<>();
+	private final Map<String, CamelExchangeThread> camelExchangeThreadsByExchangeId = new ConcurrentHashMap<>();
+	private final Map<Integer, CamelExchangeThread> camelExchangeThreadsById = new ConcurrentHashMap<>();
 	private final Set<CamelRouteDefinitionThread> camelDefinitionThreads = ConcurrentHashMap.newKeySet();
 	private final AtomicInteger threadIdCounter = new AtomicInteger();
 	private final Map<String, CamelBreakpoint> camelBreakpointsWithSources = new ConcurrentHashMap<>();
+	private final WatchExpressions watchExpressions = new WatchExpressions();
+	private final Deque<CamelStackFrame> prefetchedStackFrames = new ArrayDeque<>();
 	
-	private volatile boolean isStepping;
 	private Thread checkSuspendedNodeThread;
+	private final Executor controlExecutor;
+	private final Executor backgroundExecutor;
+	private volatile int suspensionStormThreshold = DEFAULT_SUSPENSION_STORM_THRESHOLD;
+	private volatile int jmxCallTimeoutMillis = DEFAULT_JMX_CALL_TIMEOUT_MILLIS;
+	private volatile int pollIntervalMillis = DEFAULT_POLL_INTERVAL_MILLIS;
+	private volatile int finishedExchangeGracePeriodMillis = DEFAULT_FINISHED_EXCHANGE_GRACE_PERIOD_MILLIS;
+	private final JmxCallMetrics jmxCallMetrics = new JmxCallMetrics();
+	private long lastJmxCallMetricsLogNanos = System.nanoTime();
+
+	/**
+	 * @param controlExecutor the executor running the additional workers of the operations suspending or resuming
+	 *        routes and exchanges, so that they never wait behind the data requests
+	 * @param backgroundExecutor the executor used to prepare in background the data which will be requested by the client
+	 */
+	public BacklogDebuggerConnectionManager(Executor controlExecutor, Executor backgroundExecutor) {
+		this.controlExecutor = controlExecutor;
+		this.backgroundExecutor = backgroundExecutor;
+	}
 
 	private String getLocalJMXUrl(String javaProcessPID) {
 		try {
@@ -119,34 +223,39 @@ public class BacklogDebuggerConnectionManager {
 	public boolean attach(Map<String, Object> args, IDebugProtocolClient client) {
 		this.client = client;
 		try {
+			suspensionStormThreshold = parseIntParam(args, ATTACH_PARAM_SUSPENSION_STORM_THRESHOLD, DEFAULT_SUSPENSION_STORM_THRESHOLD);
+			jmxCallTimeoutMillis = parseIntParam(args, ATTACH_PARAM_JMX_CALL_TIMEOUT, DEFAULT_JMX_CALL_TIMEOUT_MILLIS);
+			pollIntervalMillis = parseIntParam(args, ATTACH_PARAM_POLL_INTERVAL, DEFAULT_POLL_INTERVAL_MILLIS);
+			finishedExchangeGracePeriodMillis = parseIntParam(args, ATTACH_PARAM_FINISHED_EXCHANGE_GRACE_PERIOD, DEFAULT_FINISHED_EXCHANGE_GRACE_PERIOD_MILLIS);
 			String jmxAddress = (String) args.getOrDefault(ATTACH_PARAM_JMX_URL, DEFAULT_JMX_URI);
 			Object pid = args.get(ATTACH_PARAM_PID);
 			if (pid != null) {
 				jmxAddress = getLocalJMXUrl((String) pid);
 			}
-			JMXServiceURL jmxUrl = new JMXServiceURL(jmxAddress);
-			jmxConnector = connect(jmxUrl);
-			mbeanConnection = jmxConnector.getMBeanServerConnection();
-			ObjectName objectName = new ObjectName(OBJECTNAME_BACKLOGDEBUGGER);
-			Set<ObjectName> names = mbeanConnection.queryNames(objectName, null);
-			if (names != null && !names.isEmpty()) {
-				ObjectName debuggerMBeanObjectName = names.iterator().next();
-				backlogDebugger = JMX.newMBeanProxy(mbeanConnection, debuggerMBeanObjectName,
-						ManagedBacklogDebuggerMBean.class);
-				try {
-					backlogDebugger.setIncludeExchangeProperties(true);
-				} catch(Exception ex) {
-					// Ignore, we might be connected to pre 4.2 Camel version
-					System.out.println(ex);
-				}
-				try {
-					backlogDebugger.setIncludeExchangeVariables(true);
-				} catch(Exception ex) {
-					// Ignore, we might be connected to pre 4.4 Camel version
-					System.out.println(ex);
-				}
-				backlogDebugger.enableDebugger();
+			String jolokiaUrl = (String) args.get(ATTACH_PARAM_JOLOKIA_URL);
+			Callable<JMXConnector> connectorFactory;
+			if (jolokiaUrl != null) {
+				jmxAddress = jolokiaUrl;
+				connectorFactory = () -> JolokiaConnector.connect(jolokiaUrl, jmxCallTimeoutMillis);
+			} else {
+				JMXServiceURL jmxUrl = new JMXServiceURL(jmxAddress);
+				connectorFactory = () -> JMXConnectorFactory.connect(jmxUrl);
+			}
+			this.jmxAddress = jmxAddress;
+			jmxConnector = connect(connectorFactory);
+			GuardedConnection guardedConnection = guard(jmxCallMetrics.instrument(jmxConnector.getMBeanServerConnection()));
+			mbeanConnection = guardedConnection.proxy();
+			routeCatalog = new RouteCatalog(mbeanConnection);
+			ObjectName debuggerName = findBacklogDebuggerName(mbeanConnection);
+			if (debuggerName != null) {
+				DebuggerAccess debuggerAccess = createDebuggerAccess(jmxConnector, guardedConnection, debuggerName);
+				backlogDebugger = debuggerAccess.backlogDebugger();
+				debuggerPoller = debuggerAccess.poller();
+				enableDebugger(backlogDebugger);
 				routesDOMDocument = retrieveRoutesWithSourceLineNumber(jmxAddress);
+				connectionSupervisor = new ConnectionSupervisor(connectorFactory, this::resynchronize,
+						new ExponentialBackoff(RECONNECT_INITIAL_DELAY_MILLIS, RECONNECT_MAX_DELAY_MILLIS));
+				connectionSupervisor.supervise(jmxConnector);
 				
 				checkSuspendedNodeThread = new Thread((Runnable) this::checkLoop, "Camel DAP - Check Suspended node");
 				checkSuspendedNodeThread.start();
@@ -163,6 +272,126 @@ public class BacklogDebuggerConnectionManager {
 		return false;
 	}
 
+	private static ObjectName findBacklogDebuggerName(MBeanServerConnection connection)
+			throws MalformedObjectNameException, IOException {
+		Set<ObjectName> names = connection.queryNames(new ObjectName(OBJECTNAME_BACKLOGDEBUGGER), null);
+		if (names != null && !names.isEmpty()) {
+			return names.iterator().next();
+		}
+		return null;
+	}
+
+	/**
+	 * With Jolokia, the state of the backlog debugger is polled with bulk requests and its attributes are answered
+	 * from the last poll. The bulk requests are guarded as the JMX calls.
+	 */
+	private DebuggerAccess createDebuggerAccess(JMXConnector connector, GuardedConnection guardedConnection, ObjectName debuggerName) {
+		ManagedBacklogDebuggerMBean debugger = JMX.newMBeanProxy(guardedConnection.proxy(), debuggerName, ManagedBacklogDebuggerMBean.class);
+		if (connector instanceof JolokiaConnector jolokiaConnector) {
+			JolokiaBacklogDebuggerPoller jolokiaPoller = new JolokiaBacklogDebuggerPoller(jolokiaConnector.getJolokiaClient(), debuggerName, jmxCallMetrics,
+					guardedConnection);
+			return new DebuggerAccess(jolokiaPoller.withPolledAttributes(debugger), jolokiaPoller);
+		}
+		return new DebuggerAccess(debugger, new JmxBacklogDebuggerPoller(debugger));
+	}
+
+	private record DebuggerAccess(ManagedBacklogDebuggerMBean backlogDebugger, BacklogDebuggerPoller poller) {}
+
+	private static void enableDebugger(ManagedBacklogDebuggerMBean debugger) {
+		try {
+			debugger.setIncludeExchangeProperties(true);
+		} catch(Exception ex) {
+			// Ignore, we might be connected to pre 4.2 Camel version
+			LOGGER.warn("Cannot include the exchange properties in the messages of the suspended exchanges", ex);
+		}
+		try {
+			debugger.setIncludeExchangeVariables(true);
+		} catch(Exception ex) {
+			// Ignore, we might be connected to pre 4.4 Camel version
+			LOGGER.warn("Cannot include the exchange variables in the messages of the suspended exchanges", ex);
+		}
+		debugger.enableDebugger();
+	}
+
+	/**
+	 * Restores the debug session on a new connection, typically after a restart of the debugged application: the
+	 * breakpoints are set again, the routes are retrieved again and the exchanges previously suspended are forgotten,
+	 * the ones still suspended being notified again by the check loop.
+	 */
+	private void resynchronize(JMXConnector connector) throws Exception {
+		GuardedConnection guardedConnection = guard(jmxCallMetrics.instrument(connector.getMBeanServerConnection()));
+		MBeanServerConnection connection = guardedConnection.proxy();
+		ObjectName debuggerName = findBacklogDebuggerName(connection);
+		if (debuggerName == null) {
+			throw new IOException("No BacklogDebugger found on connection with " + jmxAddress);
+		}
+		DebuggerAccess debuggerAccess = createDebuggerAccess(connector, guardedConnection, debuggerName);
+		ManagedBacklogDebuggerMBean debugger = debuggerAccess.backlogDebugger();
+		enableDebugger(debugger);
+		for (CamelBreakpoint breakpoint : camelBreakpointsWithSources.values()) {
+			addBreakpoint(debugger, breakpoint);
+		}
+		if (debuggerAttached) {
+			debugger.attach();
+		}
+		jmxConnector = connector;
+		mbeanConnection = connection;
+		backlogDebugger = debugger;
+		debuggerPoller = debuggerAccess.poller();
+		routeCatalog = new RouteCatalog(connection);
+		routesDOMDocument = retrieveRoutesWithSourceLineNumber(jmxAddress);
+		for (CamelExchangeThread camelThread : camelExchangeThreadsById.values()) {
+			sendThreadExitEvent(camelThread);
+		}
+		cancelAllPrefetches();
+		camelExchangeThreadsByExchangeId.clear();
+		camelExchangeThreadsById.clear();
+		notifiedSuspendedExchangeIds.clear();
+		handleRouteDefinitions();
+
+		OutputEventArguments reconnectedEvent = new OutputEventArguments();
+		reconnectedEvent.setCategory(OutputEventArgumentsCategory.CONSOLE);
+		reconnectedEvent.setOutput("Reconnected the Camel debugger to " + jmxAddress + "\n");
+		client.output(reconnectedEvent);
+	}
+
+	private GuardedConnection guard(MBeanServerConnection connection) {
+		return new GuardedConnection(connection, jmxCallTimeoutMillis, CIRCUIT_FAILURE_THRESHOLD, CIRCUIT_OPEN_DURATION_MILLIS,
+				new GuardedConnection.CircuitListener() {
+
+					@Override
+					public void circuitOpened(Throwable cause) {
+						OutputEventArguments warningEvent = new OutputEventArguments();
+						warningEvent.setCategory(OutputEventArgumentsCategory.STDERR);
+						warningEvent.setOutput("The Camel application is not responding (" + cause.getMessage()
+								+ "), the values displayed may be outdated until it responds again.\n");
+						client.output(warningEvent);
+					}
+
+					@Override
+					public void circuitClosed() {
+						OutputEventArguments recoveredEvent = new OutputEventArguments();
+						recoveredEvent.setCategory(OutputEventArgumentsCategory.CONSOLE);
+						recoveredEvent.setOutput("The Camel application is responding again.\n");
+						client.output(recoveredEvent);
+					}
+				});
+	}
+
+	private static int parseIntParam(Map<String, Object> args, String name, int defaultValue) {
+		Object value = args.get(name);
+		if (value instanceof Number number) {
+			return number.intValue();
+		} else if (value != null) {
+			try {
+				return Integer.parseInt(value.toString().trim());
+			} catch (NumberFormatException e) {
+				LOGGER.warn("Invalid value {} for {}, using {}", value, name, defaultValue);
+			}
+		}
+		return defaultValue;
+	}
+
 	private void sendAttachErrorOutput(IDebugProtocolClient client, String specificErrorMessage) {
 		OutputEventArguments errorEvent = new OutputEventArguments();
 		errorEvent.setCategory(OutputEventArgumentsCategory.STDERR);
@@ -175,7 +404,7 @@ public class BacklogDebuggerConnectionManager {
 		client.output(errorEvent);
 	}
 
-	private JMXConnector connect(JMXServiceURL jmxUrl) throws IOException {
+	private JMXConnector connect(Callable<JMXConnector> connectorFactory) throws Exception {
 		JMXConnector connector = null;
 		int tries = 0;
 		int maxTries = 10;
@@ -183,7 +412,7 @@ public class BacklogDebuggerConnectionManager {
 		while (connector == null && tries < maxTries) {
 			tries++;
 			try {
-				connector = JMXConnectorFactory.connect(jmxUrl);
+				connector = connectorFactory.call();
 			} catch (Exception e) {
 				if(tries >= maxTries) {
 					throw e;
@@ -199,18 +428,33 @@ public class BacklogDebuggerConnectionManager {
 	}
 
 	private void checkLoop() {
-		while(!Thread.currentThread().isInterrupted() && backlogDebugger != null && backlogDebugger.isEnabled()) {
-			Set<String> suspendedBreakpointNodeIds = backlogDebugger.suspendedBreakpointNodeIds();
-			for (String nodeId : suspendedBreakpointNodeIds) {
-				handleSuspendedBreakpoint(nodeId);
+		while(!Thread.currentThread().isInterrupted() && backlogDebugger != null) {
+			if (connectionSupervisor.isConnected()) {
+				try {
+					if (!backlogDebugger.isEnabled()) {
+						return;
+					}
+					checkSuspendedBreakpoints();
+					reapFinishedExchanges();
+					handleRouteDefinitions();
+					logJmxCallMetrics();
+				} catch (RuntimeException e) {
+					if (DegradedConnectionException.isCause(e)) {
+						// Checked again on the next iteration
+						LOGGER.debug("Cannot check the suspended breakpoints: {}", e.getMessage());
+					} else if (ConnectionSupervisor.isConnectionFailure(e)) {
+						connectionSupervisor.connectionLost(e);
+					} else {
+						// Checked again on the next iteration, the suspended exchanges must not be left unnotified
+						LOGGER.warn("Error while checking the suspended breakpoints", e);
+					}
+				}
 			}
 			
-			handleRouteDefinitions();
-			
 			// TODO: might worth updating routesDomDocument?
 			
 			try {
-				Thread.sleep(1000);
+				Thread.sleep(pollIntervalMillis);
 			} catch (InterruptedException e) {
 				Thread.currentThread().interrupt();
 				return;
@@ -218,10 +462,54 @@ public class BacklogDebuggerConnectionManager {
 		}
 	}
 
+	/**
+	 * An exchange can finish after a step without reaching another node, for instance when it was leaving a node which
+	 * stops the route or which fails. Its thread would be kept forever, it is removed once it has been running for the
+	 * grace period. If the exchange is only slow and is suspended later on, it gets a new thread.
+	 */
+	private void reapFinishedExchanges() {
+		long gracePeriodNanos = TimeUnit.MILLISECONDS.toNanos(finishedExchangeGracePeriodMillis);
+		for (CamelExchangeThread camelThread : camelExchangeThreadsById.values()) {
+			if (camelThread.isRunningFor(gracePeriodNanos)) {
+				LOGGER.debug("Exchange {} has not been suspended since its step, its thread is removed", camelThread.getExchangeId());
+				removeCamelExchangeThread(camelThread);
+				sendThreadExitEvent(camelThread);
+			}
+		}
+	}
+
+	private void logJmxCallMetrics() {
+		if (LOGGER.isDebugEnabled() && System.nanoTime() - lastJmxCallMetricsLogNanos > JMX_CALL_METRICS_LOG_INTERVAL_NANOS) {
+			lastJmxCallMetricsLogNanos = System.nanoTime();
+			jmxCallMetrics.snapshot().forEach((operation, snapshot) -> LOGGER.debug("JMX calls {}: {}", operation, snapshot));
+		}
+	}
+
+	private void checkSuspendedBreakpoints() {
+		PollEvent pollEvent = new PollEvent();
+		pollEvent.begin();
+		BacklogDebuggerPoller poller = debuggerPoller;
+		boolean withExchangeIds = !notifiedSuspendedExchangeIds.isEmpty();
+		SuspendedBreakpoints suspendedBreakpoints = poller.poll(withExchangeIds);
+		forgetResumedExchanges(suspendedBreakpoints);
+		Set<String> newlySuspendedNodeIds = suspendedBreakpoints.nodeIds().stream()
+				.filter(nodeId -> !notifiedSuspendedExchangeIds.containsKey(nodeId))
+				.collect(Collectors.toSet());
+		pollEvent.complete(suspendedBreakpoints.nodeIds().size(), newlySuspendedNodeIds.size(), withExchangeIds);
+		if (newlySuspendedNodeIds.size() > suspensionStormThreshold) {
+			handleSuspensionStorm(newlySuspendedNodeIds);
+		} else if (!newlySuspendedNodeIds.isEmpty()) {
+			Map<String, String> dumps = poller.dumpTracedMessages(newlySuspendedNodeIds);
+			for (String nodeId : newlySuspendedNodeIds) {
+				handleSuspendedBreakpoint(nodeId, dumps.get(nodeId));
+			}
+		}
+	}
+
 	private void handleRouteDefinitions() {
 		// TODO: support several Camel context - especially 2 routes with same name but in a different context
 		try {
-			Set<String> camelRouteIds = retrieveCamelRouteIds(mbeanConnection);
+			Set<String> camelRouteIds = routeCatalog.refresh();
 			registerThreadForNewCamelRoute(camelRouteIds);
 			removeThreadForRemovedRoute(camelRouteIds);
 		} catch (MalformedObjectNameException | IOException e) {
@@ -262,51 +550,205 @@ public class BacklogDebuggerConnectionManager {
 		}
 	}
 
-	private Set<String> retrieveCamelRouteIds(MBeanServerConnection connection)
-			throws MalformedObjectNameException, IOException {
-		ObjectName camelRoutesObjectName = new ObjectName(OBJECTNAME_CAMELROUTES);
-		Set<ObjectName> camelRouteMbeanNames = connection.queryNames(camelRoutesObjectName, null);
-		Set<String> camelRouteIds = new HashSet<>();
-		if (camelRouteMbeanNames != null && !camelRouteMbeanNames.isEmpty()) {
-			for (ObjectName camelContextMbeanName : camelRouteMbeanNames) {
-				ManagedRouteMBean camelRoute = JMX.newMBeanProxy(connection, camelContextMbeanName, ManagedRouteMBean.class);
-				String camelRouteId = camelRoute.getRouteId();
-				camelRouteIds.add(camelRouteId);
+	/**
+	 * The exchanges can be resumed without the debugger, for instance after the fallback timeout of the backlog
+	 * debugger. Their nodes are forgotten so that the next exchanges suspended on these nodes are notified.
+	 */
+	private void forgetResumedExchanges(SuspendedBreakpoints suspendedBreakpoints) {
+		if (notifiedSuspendedExchangeIds.isEmpty()) {
+			return;
+		}
+		Set<String> suspendedBreakpointNodeIds = suspendedBreakpoints.nodeIds();
+		Set<String> suspendedExchangeIds = suspendedBreakpoints.exchangeIds();
+		for (Map.Entry<String, String> notified : notifiedSuspendedExchangeIds.entrySet()) {
+			String nodeId = notified.getKey();
+			String exchangeId = notified.getValue();
+			boolean resumed = !suspendedBreakpointNodeIds.contains(nodeId)
+					|| (suspendedExchangeIds != null && !UNKNOWN_EXCHANGE_ID.equals(exchangeId) && !suspendedExchangeIds.contains(exchangeId));
+			if (resumed && notifiedSuspendedExchangeIds.remove(nodeId, exchangeId)) {
+				CamelExchangeThread camelThread = UNKNOWN_EXCHANGE_ID.equals(exchangeId) ? findPlaceholder(nodeId) : camelExchangeThreadsByExchangeId.get(exchangeId);
+				if (camelThread != null && nodeId.equals(camelThread.getBreakPointId()) && camelThread.startRunning()) {
+					removeCamelExchangeThread(camelThread);
+					sendThreadExitEvent(camelThread);
+				}
 			}
 		}
-		return camelRouteIds;
 	}
 
-	private void handleSuspendedBreakpoint(String nodeId) {
-		if (!isStepping && !notifiedSuspendedBreakpointIds.contains(nodeId)) {
+	private CamelExchangeThread findPlaceholder(String nodeId) {
+		return camelExchangeThreadsById.values().stream()
+				.filter(camelThread -> camelThread.isPlaceholder() && nodeId.equals(camelThread.getBreakPointId()))
+				.findAny()
+				.orElse(null);
+	}
+
+	/**
+	 * Many exchanges are suspended at the same time, for instance with a breakpoint on a busy route. Dumping all their
+	 * messages and notifying them one by one would flood the client and the JMX connection. Placeholder threads are
+	 * created instead, their messages are retrieved when their stack trace is requested, and a single stopped event is
+	 * sent.
+	 */
+	private void handleSuspensionStorm(Set<String> newlySuspendedNodeIds) {
+		LOGGER.info("{} exchanges newly suspended, their messages will be retrieved on demand", newlySuspendedNodeIds.size());
+		Integer firstThreadId = null;
+		for (String nodeId : newlySuspendedNodeIds) {
+			if (notifiedSuspendedExchangeIds.putIfAbsent(nodeId, UNKNOWN_EXCHANGE_ID) == null) {
+				CamelExchangeThread placeholder = CamelExchangeThread.placeholder(threadIdCounter.incrementAndGet(), nodeId, camelBreakpointsWithSources.get(nodeId));
+				addCamelExchangeThread(placeholder);
+				// Announced like the other threads, the client receives a thread exited event when it is resumed
+				sendThreadStartEvent(placeholder);
+				if (firstThreadId == null) {
+					firstThreadId = placeholder.getId();
+				}
+			}
+		}
+		if (firstThreadId != null) {
+			StoppedEventArguments stoppedEventArgs = new StoppedEventArguments();
+			stoppedEventArgs.setReason(StoppedEventArgumentsReason.BREAKPOINT);
+			stoppedEventArgs.setThreadId(firstThreadId);
+			stoppedEventArgs.setAllThreadsStopped(Boolean.FALSE);
+			stoppedEventArgs.setDescription(newlySuspendedNodeIds.size() + " exchanges suspended");
+			client.stopped(stoppedEventArgs);
+		}
+	}
+
+	/**
+	 * Retrieves the message of the exchange of a placeholder thread.
+	 *
+	 * @param camelThread the thread opened by the user
+	 * @return the thread with the message of its exchange, or the provided thread if it is not a placeholder or if its
+	 *         exchange is no longer suspended
+	 */
+	public CamelExchangeThread materialize(CamelExchangeThread camelThread) {
+		if (!camelThread.isPlaceholder()) {
+			return camelThread;
+		}
+		String nodeId = camelThread.getBreakPointId();
+		MessageDumpEvent dumpEvent = new MessageDumpEvent();
+		dumpEvent.begin();
+		String xml = backlogDebugger.dumpTracedMessagesAsXml(nodeId, true);
+		dumpEvent.complete(nodeId, xml);
+		if (xml == null || xml.isBlank()) {
+			return camelThread;
+		}
+		EventMessage eventMessage = new UnmarshallerEventMessage().getUnmarshalledEventMessage(xml);
+		CamelExchangeThread materializedThread = new CamelExchangeThread(camelThread.getId(), nodeId, eventMessage, camelBreakpointsWithSources.get(nodeId));
+		if (camelExchangeThreadsById.replace(camelThread.getId(), camelThread, materializedThread)) {
+			camelExchangeThreadsByExchangeId.put(materializedThread.getExchangeId(), materializedThread);
+			notifiedSuspendedExchangeIds.replace(nodeId, UNKNOWN_EXCHANGE_ID, materializedThread.getExchangeId());
+			prefetch(materializedThread);
+			return materializedThread;
+		}
+		// Materialized concurrently
+		return camelExchangeThreadsById.getOrDefault(camelThread.getId(), camelThread);
+	}
+
+	private void handleSuspendedBreakpoint(String nodeId, String xml) {
+		if (!notifiedSuspendedExchangeIds.containsKey(nodeId)) {
+			if (xml == null || xml.isBlank()) {
+				// The exchange has been resumed since the suspended node ids have been retrieved
+				return;
+			}
 			StoppedEventArguments stoppedEventArgs = new StoppedEventArguments();
 			stoppedEventArgs.setReason(StoppedEventArgumentsReason.BREAKPOINT);
-			// Keep using deprecated method to have it still working with 4.1- 
-			String xml = backlogDebugger.dumpTracedMessagesAsXml(nodeId, true);
 			EventMessage eventMessage = new UnmarshallerEventMessage().getUnmarshalledEventMessage(xml);
-			Optional<CamelExchangeThread> thread = camelExchangeThreads.stream().filter(camelThread -> camelThread.getExchangeId().equals(eventMessage.getExchangeId())).findAny();
-			if(thread.isEmpty()) {
+			CamelExchangeThread stoppedThread = camelExchangeThreadsByExchangeId.get(eventMessage.getExchangeId());
+			if (stoppedThread == null) {
 				final int threadId = threadIdCounter.incrementAndGet();
-				camelExchangeThreads.add(new CamelExchangeThread(threadId, nodeId, eventMessage, camelBreakpointsWithSources.get(nodeId)));
-				ThreadEventArguments threadEventArguments = new ThreadEventArguments();
-				threadEventArguments.setReason(ThreadEventArgumentsReason.STARTED);
-				threadEventArguments.setThreadId(threadId);
-				client.thread(threadEventArguments);
+				stoppedThread = new CamelExchangeThread(threadId, nodeId, eventMessage, camelBreakpointsWithSources.get(nodeId));
+				addCamelExchangeThread(stoppedThread);
+				sendThreadStartEvent(stoppedThread);
 				stoppedEventArgs.setThreadId(threadId);
 			} else {
-				CamelExchangeThread camelThread = thread.get();
-				CamelBreakpoint camelBreakpoint = retrieveCorrespondingBreakpoint(nodeId, camelThread);
-				stoppedEventArgs.setThreadId(camelThread.getId());
+				CamelBreakpoint camelBreakpoint = retrieveCorrespondingBreakpoint(nodeId, stoppedThread);
+				stoppedEventArgs.setThreadId(stoppedThread.getId());
 				if (camelBreakpoint != null) {
-					camelExchangeThreads.remove(camelThread);
-					camelExchangeThreads.add(new CamelExchangeThread(camelThread.getId(), nodeId, eventMessage, camelBreakpoint));
+					stoppedThread = new CamelExchangeThread(stoppedThread.getId(), nodeId, eventMessage, camelBreakpoint);
+					addCamelExchangeThread(stoppedThread);
+				} else {
+					stoppedThread.suspend();
 				}
 			}
-			notifiedSuspendedBreakpointIds.add(nodeId);
+			notifiedSuspendedExchangeIds.put(nodeId, eventMessage.getExchangeId());
+			prefetch(stoppedThread);
 			client.stopped(stoppedEventArgs);
 		}
 	}
 
+	/**
+	 * Adds the thread, or replaces the one of the same exchange.
+	 */
+	void addCamelExchangeThread(CamelExchangeThread camelThread) {
+		if (!camelThread.isPlaceholder()) {
+			camelExchangeThreadsByExchangeId.put(camelThread.getExchangeId(), camelThread);
+		}
+		CamelExchangeThread previousThread = camelExchangeThreadsById.put(camelThread.getId(), camelThread);
+		if (previousThread != null && previousThread != camelThread) {
+			cancelPrefetch(previousThread);
+		}
+	}
+
+	private void removeCamelExchangeThread(CamelExchangeThread camelThread) {
+		if (!camelThread.isPlaceholder()) {
+			camelExchangeThreadsByExchangeId.remove(camelThread.getExchangeId(), camelThread);
+		}
+		camelExchangeThreadsById.remove(camelThread.getId(), camelThread);
+		cancelPrefetch(camelThread);
+	}
+
+	private static String getNotifiedExchangeId(CamelExchangeThread camelThread) {
+		return camelThread.isPlaceholder() ? UNKNOWN_EXCHANGE_ID : camelThread.getExchangeId();
+	}
+
+	/**
+	 * The client is requesting the stack trace, scopes and variables right after receiving the stopped event.
+	 * Computing them in background allows to answer without waiting for the JMX round trips.
+	 */
+	private void prefetch(CamelExchangeThread camelThread) {
+		CamelStackFrame stackFrame = camelThread.getStackFrame();
+		CamelStackFrame evictedStackFrame = null;
+		synchronized (prefetchedStackFrames) {
+			prefetchedStackFrames.removeIf(prefetched -> prefetched == stackFrame);
+			prefetchedStackFrames.addLast(stackFrame);
+			if (prefetchedStackFrames.size() > MAX_PREFETCHED_STACK_FRAMES) {
+				evictedStackFrame = prefetchedStackFrames.pollFirst();
+			}
+		}
+		if (evictedStackFrame != null) {
+			evictedStackFrame.cancelPrefetch();
+		}
+		stackFrame.prefetch(backlogDebugger, backgroundExecutor);
+		List<CamelExpression> expressions = watchExpressions.stopped();
+		if (!expressions.isEmpty()) {
+			BacklogDebuggerPoller poller = debuggerPoller;
+			String nodeId = camelThread.getBreakPointId();
+			stackFrame.prefetchEvaluations(expressions, batch -> poller.evaluate(nodeId, batch),
+					poller.isBatching() ? 1 : WATCH_EVALUATIONS_PARALLELISM, backgroundExecutor);
+		}
+	}
+
+	/**
+	 * The exchange is resumed, the variables and evaluations computed in background for its stop are not needed anymore.
+	 */
+	private void cancelPrefetch(CamelExchangeThread camelThread) {
+		CamelStackFrame stackFrame = camelThread.getStackFrame();
+		synchronized (prefetchedStackFrames) {
+			prefetchedStackFrames.removeIf(prefetched -> prefetched == stackFrame);
+		}
+		stackFrame.cancelPrefetch();
+	}
+
+	private void cancelAllPrefetches() {
+		List<CamelStackFrame> stackFrames;
+		synchronized (prefetchedStackFrames) {
+			stackFrames = new ArrayList<>(prefetchedStackFrames);
+			prefetchedStackFrames.clear();
+		}
+		for (CamelStackFrame stackFrame : stackFrames) {
+			stackFrame.cancelPrefetch();
+		}
+	}
+
 	private CamelBreakpoint retrieveCorrespondingBreakpoint(String nodeId, CamelExchangeThread camelThread) {
 		CamelBreakpoint camelBreakpoint = camelBreakpointsWithSources.get(nodeId);
 		if(camelBreakpoint != null) {
@@ -315,7 +757,10 @@ public class BacklogDebuggerConnectionManager {
 			String path = "//*[@id='" + nodeId + "']";
 	        XPath xPath = XPathFactory.newInstance().newXPath();
 			try {
+				RouteLookupEvent lookupEvent = new RouteLookupEvent();
+				lookupEvent.begin();
 				Node tagNode = (Node) xPath.evaluate(path, routesDOMDocument, XPathConstants.NODE);
+				lookupEvent.complete(RouteLookupEvent.KIND_NODE_ID, nodeId, tagNode != null);
 				if (tagNode != null) {
 					Element tag = (Element) tagNode;
 					String lineNumber = tag.getAttribute("sourceLineNumber");
@@ -371,7 +816,9 @@ public class BacklogDebuggerConnectionManager {
 			}
 			backlogDebugger = null;
 		}
-		if (jmxConnector != null) {
+		if (connectionSupervisor != null) {
+			connectionSupervisor.close();
+		} else if (jmxConnector != null) {
 			try {
 				jmxConnector.close();
 			} catch (IOException e) {
@@ -380,6 +827,15 @@ public class BacklogDebuggerConnectionManager {
 		}
 	}
 
+	/**
+	 * Attaches the backlog debugger, which resumes the message processing when Camel is started in suspend mode. It
+	 * is attached again after a reconnection.
+	 */
+	public void attachDebugger() {
+		debuggerAttached = true;
+		backlogDebugger.attach();
+	}
+
 	public MBeanServerConnection getMbeanConnection() {
 		return mbeanConnection;
 	}
@@ -391,6 +847,10 @@ public class BacklogDebuggerConnectionManager {
 	public Document getRoutesDOMDocument() {
 		return routesDOMDocument;
 	}
+
+	public JmxCallMetrics getJmxCallMetrics() {
+		return jmxCallMetrics;
+	}
 	
 	/**
 	 * hThis is provided for testing purpose. This is supposed to be updated internally by this class only.
@@ -401,20 +861,30 @@ public class BacklogDebuggerConnectionManager {
 		this.routesDOMDocument = document;
 	}
 
-	public Set<String> getNotifiedSuspendedBreakpointIds() {
-		return notifiedSuspendedBreakpointIds;
+	/**
+	 * @return the id of the exchange notified as suspended for each node id
+	 */
+	public Map<String, String> getNotifiedSuspendedExchangeIds() {
+		return notifiedSuspendedExchangeIds;
 	}
 
 	public void resumeAll() {
-		for (CamelExchangeThread camelThread : camelExchangeThreads) {
+		for (CamelExchangeThread camelThread : camelExchangeThreadsById.values()) {
 			sendThreadExitEvent(camelThread);
 		}
 		backlogDebugger.resumeAll();
-		camelExchangeThreads.clear();
-		notifiedSuspendedBreakpointIds.clear();
+		cancelAllPrefetches();
+		camelExchangeThreadsByExchangeId.clear();
+		camelExchangeThreadsById.clear();
+		notifiedSuspendedExchangeIds.clear();
 		
-		for (CamelRouteDefinitionThread camelContextDefinitionThread : camelDefinitionThreads) {
-			resume(camelContextDefinitionThread);
+		List<CamelRouteDefinitionThread> resumedRouteThreads = BoundedParallelism.forEach(camelDefinitionThreads,
+				ROUTE_OPERATIONS_PARALLELISM, controlExecutor, this::resumeRoute);
+		if (!resumedRouteThreads.isEmpty()) {
+			ContinuedEventArguments args = new ContinuedEventArguments();
+			args.setAllThreadsContinued(Boolean.TRUE);
+			args.setThreadId(resumedRouteThreads.get(0).getId());
+			client.continued(args);
 		}
 	}
 
@@ -425,6 +895,13 @@ public class BacklogDebuggerConnectionManager {
 		client.continued(args);
 	}
 
+	private void sendThreadStartEvent(CamelExchangeThread camelThread) {
+		ThreadEventArguments threadEventArguments = new ThreadEventArguments();
+		threadEventArguments.setReason(ThreadEventArgumentsReason.STARTED);
+		threadEventArguments.setThreadId(camelThread.getId());
+		client.thread(threadEventArguments);
+	}
+
 	private void sendThreadExitEvent(CamelExchangeThread camelThread) {
 		ThreadEventArguments threadEventArguments = new ThreadEventArguments();
 		threadEventArguments.setReason(ThreadEventArgumentsReason.EXITED);
@@ -433,7 +910,25 @@ public class BacklogDebuggerConnectionManager {
 	}
 
 	public Set<CamelExchangeThread> getCamelExchangeThreads() {
-		return camelExchangeThreads;
+		return new HashSet<>(camelExchangeThreadsById.values());
+	}
+
+	/**
+	 * @return the expressions of the watch view, evaluated as soon as an exchange is suspended
+	 */
+	public WatchExpressions getWatchExpressions() {
+		return watchExpressions;
+	}
+
+	/**
+	 * @return the breakpoints set from the sources, by node id
+	 */
+	public Map<String, CamelBreakpoint> getCamelBreakpointsWithSources() {
+		return Collections.unmodifiableMap(camelBreakpointsWithSources);
+	}
+
+	public Optional<CamelExchangeThread> getCamelExchangeThread(int threadId) {
+		return Optional.ofNullable(camelExchangeThreadsById.get(threadId));
 	}
 	
 	public Set<CamelRouteDefinitionThread> getCamelContextDefinitionThreads() {
@@ -441,7 +936,7 @@ public class BacklogDebuggerConnectionManager {
 	}
 	
 	public Set<org.eclipse.lsp4j.debug.Thread> getAllThreads() {
-		return Stream.concat(camelExchangeThreads.stream(), camelDefinitionThreads.stream())
+		return Stream.concat(camelExchangeThreadsById.values().stream(), camelDefinitionThreads.stream())
 		        .collect(Collectors.toSet());
 	}
 
@@ -449,6 +944,21 @@ public class BacklogDebuggerConnectionManager {
 		this.camelBreakpointsWithSources.put(breakpoint.getNodeId(), breakpoint);
 	}
 
+	public void addBreakpoint(CamelBreakpoint breakpoint) {
+		addBreakpoint(backlogDebugger, breakpoint);
+	}
+
+	private static void addBreakpoint(ManagedBacklogDebuggerMBean debugger, CamelBreakpoint breakpoint) {
+		BreakpointInstallEvent installEvent = new BreakpointInstallEvent();
+		installEvent.begin();
+		if (breakpoint.getCondition() != null) {
+			debugger.addConditionalBreakpoint(breakpoint.getNodeId(), CAMEL_LANGUAGE_SIMPLE, breakpoint.getCondition());
+		} else {
+			debugger.addBreakpoint(breakpoint.getNodeId());
+		}
+		installEvent.complete(breakpoint.getNodeId(), breakpoint.getCondition() != null);
+	}
+
 	public void removeBreakpoint(String previouslySetBreakpointId) {
 		backlogDebugger.removeBreakpoint(previouslySetBreakpointId);
 		this.camelBreakpointsWithSources.remove(previouslySetBreakpointId);
@@ -456,50 +966,139 @@ public class BacklogDebuggerConnectionManager {
 
 	public void resume(org.eclipse.lsp4j.debug.Thread camelThread) {
 		if (camelThread instanceof CamelExchangeThread camelExchangeThread) {
-			backlogDebugger.resumeBreakpoint(camelExchangeThread.getBreakPointId());
-			notifiedSuspendedBreakpointIds.remove(camelExchangeThread.getBreakPointId());
-			camelExchangeThreads.remove(camelThread);
-			sendThreadExitEvent(camelExchangeThread);
-		} else if (camelThread instanceof CamelRouteDefinitionThread camelRouteDefinitionThread) {
-			ManagedRouteMBean camelRoute = findCorrespondingCamelRouteMBean(mbeanConnection, camelRouteDefinitionThread);
-			if (camelRoute != null) {
-				resume(camelThread, camelRoute);
+			if (resumeExchange(camelExchangeThread)) {
+				sendThreadExitEvent(camelExchangeThread);
 			}
+		} else if (camelThread instanceof CamelRouteDefinitionThread camelRouteDefinitionThread
+				&& resumeRoute(camelRouteDefinitionThread)) {
+			sendThreadResumeEvent(camelRouteDefinitionThread);
+		}
+	}
+
+	/**
+	 * @return whether the exchange was suspended and has been resumed
+	 */
+	private boolean resumeExchange(CamelExchangeThread camelExchangeThread) {
+		if (!camelExchangeThread.startRunning()) {
+			LOGGER.debug("Thread {} is not suspended, it is not resumed", camelExchangeThread.getId());
+			return false;
 		}
+		backlogDebugger.resumeBreakpoint(camelExchangeThread.getBreakPointId());
+		notifiedSuspendedExchangeIds.remove(camelExchangeThread.getBreakPointId(), getNotifiedExchangeId(camelExchangeThread));
+		removeCamelExchangeThread(camelExchangeThread);
+		return true;
 	}
 
-	private void resume(org.eclipse.lsp4j.debug.Thread camelThread, ManagedRouteMBean camelRoute) {
+	/**
+	 * Resumes, or steps, all the suspended exchanges matching the filter. The JMX calls are done in parallel, with a
+	 * limited number of concurrent calls, and the thread exited events are sent once all the exchanges have been resumed.
+	 *
+	 * @param filter the criteria of the exchanges to resume
+	 * @return the number of exchanges resumed or stepped
+	 */
+	public int resumeExchanges(ResumeExchangesArguments filter) {
+		List<CamelExchangeThread> candidates = camelExchangeThreadsById.values().stream()
+				.filter(camelThread -> camelThread.getState() == CamelExchangeThread.State.SUSPENDED && filter.matchesNode(camelThread.getBreakPointId()))
+				.toList();
+		List<CamelExchangeThread> resumedThreads = new ArrayList<>();
+		BoundedParallelism.forEach(candidates, ROUTE_OPERATIONS_PARALLELISM, controlExecutor, candidate -> {
+			try {
+				CamelExchangeThread resumedThread = resumeExchangeIfMatching(candidate, filter);
+				if (resumedThread != null) {
+					synchronized (resumedThreads) {
+						resumedThreads.add(resumedThread);
+					}
+				}
+				return resumedThread != null;
+			} catch (RuntimeException e) {
+				LOGGER.warn("Cannot resume an exchange", e);
+				return false;
+			}
+		});
+		if (!filter.isStep()) {
+			for (CamelExchangeThread resumedThread : resumedThreads) {
+				sendThreadExitEvent(resumedThread);
+			}
+		}
+		return resumedThreads.size();
+	}
+
+	private CamelExchangeThread resumeExchangeIfMatching(CamelExchangeThread candidate, ResumeExchangesArguments filter) {
+		CamelExchangeThread camelThread = filter.requiresMessage() ? materialize(candidate) : candidate;
+		if (!filter.matches(camelThread)) {
+			return null;
+		}
+		if (filter.isStep()) {
+			return next(camelThread) ? camelThread : null;
+		}
+		return resumeExchange(camelThread) ? camelThread : null;
+	}
+
+	/**
+	 * @return whether the route has been resumed
+	 */
+	private boolean resumeRoute(CamelRouteDefinitionThread camelRouteDefinitionThread) {
+		ManagedRouteMBean camelRoute = routeCatalog.get(camelRouteDefinitionThread.getName());
+		if (camelRoute == null) {
+			return false;
+		}
 		try {
 			if (camelRoute instanceof ManagedSuspendableRouteMBean suspendableCamelRoute) {
 				suspendableCamelRoute.resume();
 			} else {
 				camelRoute.start();
 			}
-			sendThreadResumeEvent(camelThread);
+			return true;
 		} catch (Exception e) {
-			LOGGER.error("Cannot resume Camel route" + camelRoute.getCamelId(), e);
+			LOGGER.error("Cannot resume Camel route " + camelRouteDefinitionThread.getName(), e);
+			return false;
 		}
 	}
 
-	public void next(org.eclipse.lsp4j.debug.Thread camelThread) {
-		if (camelThread instanceof CamelExchangeThread camelExchangeThread) {
-			isStepping = true;
+	/**
+	 * @param camelThread the thread to step
+	 * @return whether the thread was a suspended exchange which has stepped
+	 */
+	public boolean next(org.eclipse.lsp4j.debug.Thread camelThread) {
+		if (camelThread instanceof CamelExchangeThread camelThreadToStep) {
+			// The exchange id is needed to follow the exchange on the next node
+			CamelExchangeThread camelExchangeThread = materialize(camelThreadToStep);
+			if (!camelExchangeThread.startStepping()) {
+				LOGGER.debug("Thread {} is not suspended, it cannot step", camelExchangeThread.getId());
+				return false;
+			}
+			cancelPrefetch(camelExchangeThread);
 			String breakPointId = camelExchangeThread.getBreakPointId();
-			if(isLastInroute(breakPointId)) {
-				camelExchangeThreads.remove(camelExchangeThread);
-				sendThreadExitEvent(camelExchangeThread);
+			boolean lastInRoute = isLastInroute(routesDOMDocument, breakPointId);
+			try {
+				backlogDebugger.stepBreakpoint(breakPointId);
+			} finally {
+				camelExchangeThread.stepCompleted();
+				// Forgotten only once the step is done, so that the node it is leaving is ignored until then
+				notifiedSuspendedExchangeIds.remove(breakPointId, getNotifiedExchangeId(camelExchangeThread));
+				if (lastInRoute) {
+					removeCamelExchangeThread(camelExchangeThread);
+					sendThreadExitEvent(camelExchangeThread);
+				}
 			}
-			backlogDebugger.stepBreakpoint(breakPointId);
-			notifiedSuspendedBreakpointIds.remove(breakPointId);
-			isStepping = false;
+			return true;
 		}
+		return false;
 	}
 
-	private boolean isLastInroute(String id) {
+	/**
+	 * @param routesDOMDocument the routes with the ids of their nodes
+	 * @param id the id of a node
+	 * @return whether the node is the last one of its route, so that an exchange stepping from it leaves the route
+	 */
+	static boolean isLastInroute(Document routesDOMDocument, String id) {
 		String path = "//*[@id='" + id + "']";
         XPath xPath = XPathFactory.newInstance().newXPath();
         try {
+            RouteLookupEvent lookupEvent = new RouteLookupEvent();
+            lookupEvent.begin();
             Node tagNode = (Node) xPath.evaluate(path, routesDOMDocument, XPathConstants.NODE);
+            lookupEvent.complete(RouteLookupEvent.KIND_LAST_IN_ROUTE, id, tagNode != null);
             Element tag = (Element) tagNode;
             Node sibling = tag.getNextSibling();
             while (null != sibling && sibling.getNodeType() != Node.ELEMENT_NODE) {
@@ -514,7 +1113,7 @@ public class BacklogDebuggerConnectionManager {
             	}
             	if (parent != null && !"route".equals(parent.getNodeName())) {
             		Element parentElement = (Element) parent;
-            		return isLastInroute(parentElement.getAttribute("id"));
+            		return isLastInroute(routesDOMDocument, parentElement.getAttribute("id"));
             	}
             }
         } catch (XPathExpressionException e) {
@@ -523,70 +1122,55 @@ public class BacklogDebuggerConnectionManager {
         return true;
 	}
 
+	/**
+	 * Suspends the route of the thread, or all the routes in parallel when the thread id is 0. A single stopped event
+	 * is sent when all the routes are suspended.
+	 *
+	 * @param args the arguments of the pause request
+	 */
 	public void suspend(PauseArguments args) {
-		MBeanServerConnection connection = mbeanConnection;
 		if (args.getThreadId() == 0) {
-			for (CamelRouteDefinitionThread camelRouteDefinitionThread : camelDefinitionThreads) {
-				suspend(connection, camelRouteDefinitionThread);
+			List<CamelRouteDefinitionThread> suspendedRouteThreads = BoundedParallelism.forEach(camelDefinitionThreads,
+					ROUTE_OPERATIONS_PARALLELISM, controlExecutor, this::suspendRoute);
+			if (!suspendedRouteThreads.isEmpty()) {
+				sendRouteStoppedEvent(suspendedRouteThreads.get(0), Boolean.TRUE);
 			}
 		} else {
 			Optional<CamelRouteDefinitionThread> camelDefinition = camelDefinitionThreads.stream()
 					.filter(camelDefinitionThread -> args.getThreadId() == camelDefinitionThread.getId())
 					.findAny();
-			if (camelDefinition.isPresent()) {
-				CamelRouteDefinitionThread camelRouteDefinitionThread = camelDefinition.get();
-				suspend(connection, camelRouteDefinitionThread);
+			if (camelDefinition.isPresent() && suspendRoute(camelDefinition.get())) {
+				sendRouteStoppedEvent(camelDefinition.get(), Boolean.FALSE);
 			}
 		}
 	}
 
-	private void suspend(MBeanServerConnection connection, CamelRouteDefinitionThread camelRouteDefinitionThread) {
-		ManagedRouteMBean camelRoute = findCorrespondingCamelRouteMBean(connection, camelRouteDefinitionThread);
-		if (camelRoute != null) {
-			suspend(camelRoute, camelRouteDefinitionThread);
-		}
-	}
-
-	private ManagedRouteMBean findCorrespondingCamelRouteMBean(MBeanServerConnection connection,
-			CamelRouteDefinitionThread camelRouteDefinitionThread) {
-		try {
-			ObjectName camelRoutesObjectName = new ObjectName(OBJECTNAME_CAMELROUTES);
-			Set<ObjectName> camelRouteMbeanNames = connection.queryNames(camelRoutesObjectName, null);
-			for (ObjectName camelRouteMbeanName : camelRouteMbeanNames) {
-				String classNameOfMBean = connection.getMBeanInfo(camelRouteMbeanName).getClassName();
-				if (classNameOfMBean.contains("ManagedSuspendableRoute")) {
-					ManagedSuspendableRouteMBean camelRoute = JMX.newMBeanProxy(connection, camelRouteMbeanName, ManagedSuspendableRouteMBean.class);
-					if (camelRoute.getRouteId().equals(camelRouteDefinitionThread.getName())) {
-						return camelRoute;
-					}
-				} else {
-					ManagedRouteMBean camelRoute = JMX.newMBeanProxy(connection, camelRouteMbeanName, ManagedRouteMBean.class);
-					if (camelRoute.getRouteId().equals(camelRouteDefinitionThread.getName())) {
-						return camelRoute;
-					}
-				}
-			}
-		} catch (MalformedObjectNameException | IOException | InstanceNotFoundException | IntrospectionException | ReflectionException e ) {
-			LOGGER.error("Cannot retrieve Camel route", e);
+	/**
+	 * @return whether the route has been suspended
+	 */
+	private boolean suspendRoute(CamelRouteDefinitionThread camelRouteDefinitionThread) {
+		ManagedRouteMBean camelRoute = routeCatalog.get(camelRouteDefinitionThread.getName());
+		if (camelRoute == null) {
+			return false;
 		}
-		return null;
-	}
-
-	private void suspend(ManagedRouteMBean camelRoute,
-			CamelRouteDefinitionThread camelRouteDefinitionThread) {
 		try {
 			if(camelRoute instanceof ManagedSuspendableRouteMBean suspendableCamelRoute) {
 				suspendableCamelRoute.suspend();
 			} else {
 				camelRoute.stop();
 			}
-			StoppedEventArguments stoppedEventArgs = new StoppedEventArguments();
-			stoppedEventArgs.setAllThreadsStopped(Boolean.FALSE);
-			stoppedEventArgs.setReason(StoppedEventArgumentsReason.PAUSE);
-			stoppedEventArgs.setThreadId(camelRouteDefinitionThread.getId());
-			client.stopped(stoppedEventArgs);
+			return true;
 		} catch (Exception e) {
 			LOGGER.error("Cannot suspend Camel route", e);
+			return false;
 		}
 	}
+
+	private void sendRouteStoppedEvent(CamelRouteDefinitionThread camelRouteDefinitionThread, Boolean allThreadsStopped) {
+		StoppedEventArguments stoppedEventArgs = new StoppedEventArguments();
+		stoppedEventArgs.setAllThreadsStopped(allThreadsStopped);
+		stoppedEventArgs.setReason(StoppedEventArgumentsReason.PAUSE);
+		stoppedEventArgs.setThreadId(camelRouteDefinitionThread.getId());
+		client.stopped(stoppedEventArgs);
+	}
 }
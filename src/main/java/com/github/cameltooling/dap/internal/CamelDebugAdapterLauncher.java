@@ -16,15 +16,20 @@
  */
 package com.github.cameltooling.dap.internal;
 
+import java.util.concurrent.Executors;
+
 import org.eclipse.lsp4j.debug.launch.DSPLauncher;
 import org.eclipse.lsp4j.debug.services.IDebugProtocolClient;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 
+import com.github.cameltooling.dap.internal.concurrent.CancellableRequestTracker;
+
 public class CamelDebugAdapterLauncher {
 
 	public static void main(String[] args) {
 		CamelDebugAdapterServer debugServer = new CamelDebugAdapterServer();
-		Launcher<IDebugProtocolClient> serverLauncher = DSPLauncher.createServerLauncher(debugServer, System.in, System.out);
+		Launcher<IDebugProtocolClient> serverLauncher = DSPLauncher.createServerLauncher(debugServer, System.in, System.out,
+				Executors.newCachedThreadPool(), CancellableRequestTracker::wrap);
 		IDebugProtocolClient clientProxy = serverLauncher.getRemoteProxy();
 		debugServer.connect(clientProxy);
 		serverLauncher.startListening();
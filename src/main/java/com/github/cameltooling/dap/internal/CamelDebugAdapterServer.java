@@ -18,24 +18,38 @@ package com.github.cameltooling.dap.internal;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.apache.camel.api.management.mbean.ManagedBacklogDebuggerMBean;
 import org.eclipse.lsp4j.debug.Breakpoint;
+import org.eclipse.lsp4j.debug.CancelArguments;
 import org.eclipse.lsp4j.debug.Capabilities;
 import org.eclipse.lsp4j.debug.ConfigurationDoneArguments;
 import org.eclipse.lsp4j.debug.ContinueArguments;
 import org.eclipse.lsp4j.debug.ContinueResponse;
 import org.eclipse.lsp4j.debug.DisconnectArguments;
+import org.eclipse.lsp4j.debug.EvaluateArguments;
+import org.eclipse.lsp4j.debug.EvaluateArgumentsContext;
+import org.eclipse.lsp4j.debug.EvaluateResponse;
 import org.eclipse.lsp4j.debug.InitializeRequestArguments;
 import org.eclipse.lsp4j.debug.NextArguments;
 import org.eclipse.lsp4j.debug.OutputEventArguments;
@@ -62,15 +76,32 @@ import org.eclipse.lsp4j.debug.VariablesArguments;
 import org.eclipse.lsp4j.debug.VariablesResponse;
 import org.eclipse.lsp4j.debug.services.IDebugProtocolClient;
 import org.eclipse.lsp4j.debug.services.IDebugProtocolServer;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.eclipse.lsp4j.jsonrpc.services.JsonRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import com.github.cameltooling.dap.internal.concurrent.CancellableRequestTracker;
+import com.github.cameltooling.dap.internal.concurrent.ClientEventDispatcher;
+import com.github.cameltooling.dap.internal.concurrent.RequestCoalescer;
+import com.github.cameltooling.dap.internal.concurrent.RequestExecutor;
+import com.github.cameltooling.dap.internal.jfr.RouteLookupEvent;
+import com.github.cameltooling.dap.internal.metrics.LatencyHistogram;
+import com.github.cameltooling.dap.internal.metrics.RequestMetrics;
 import com.github.cameltooling.dap.internal.model.CamelBreakpoint;
+import com.github.cameltooling.dap.internal.model.CamelExpression;
 import com.github.cameltooling.dap.internal.model.CamelScope;
 import com.github.cameltooling.dap.internal.model.CamelStackFrame;
 import com.github.cameltooling.dap.internal.model.CamelExchangeThread;
+import com.github.cameltooling.dap.internal.requests.JmxMetricsResponse;
+import com.github.cameltooling.dap.internal.requests.JmxOperationMetrics;
+import com.github.cameltooling.dap.internal.requests.ResumeExchangesArguments;
+import com.github.cameltooling.dap.internal.requests.ResumeExchangesResponse;
+import com.github.cameltooling.dap.internal.telemetry.TelemetryAggregator;
 import com.github.cameltooling.dap.internal.telemetry.TelemetryEvent;
 
 public class CamelDebugAdapterServer implements IDebugProtocolServer {
@@ -80,53 +111,87 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 	static final String BASE_MESSAGE_EXCEPTION_WHEN_SEARCHING_FOR_ID = "An exception occurred when searching for the related id for %s l.%s.";
 	static final String BREAKPOINT_MESSAGE_CANNOT_FIND_ID = "The Camel debugger cannot find the related id for %s l.%s";
 
-	private static final String CAMEL_LANGUAGE_SIMPLE = "simple";
+	public static final String REQUEST_RESUME_EXCHANGES = "camel.resumeExchanges";
+	public static final String REQUEST_JMX_METRICS = "camel.jmxMetrics";
+
+	static final String TELEMETRY_ATTACH = "camel.dap.attach";
+	static final String TELEMETRY_REQUESTS = "camel.dap.requests";
+	static final String TELEMETRY_REQUEST_FAILED = "camel.dap.request.failed";
+	static final String TELEMETRY_STEP = "camel.dap.step";
+	static final String TELEMETRY_CONTINUE = "camel.dap.continue";
+	private static final long TELEMETRY_INTERVAL_MINUTES = 5;
+	private static final ScheduledExecutorService TELEMETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "Camel DAP - Telemetry");
+		thread.setDaemon(true);
+		return thread;
+	});
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(CamelDebugAdapterServer.class);
 
-	private volatile IDebugProtocolClient client;
-	private BacklogDebuggerConnectionManager connectionManager = new BacklogDebuggerConnectionManager();
+	private volatile ClientEventDispatcher client;
+	/**
+	 * Requests resuming or suspending the exchanges. They are latency-critical as exchanges are blocked upstream, so
+	 * they must never wait behind the data requests.
+	 */
+	private final RequestExecutor controlRequestExecutor = RequestExecutor.create("Control requests");
+	/**
+	 * Requests retrieving or updating data, which can take time for instance with large message bodies.
+	 */
+	private final RequestExecutor dataRequestExecutor = RequestExecutor.create("Data requests");
+	private BacklogDebuggerConnectionManager connectionManager = new BacklogDebuggerConnectionManager(controlRequestExecutor, dataRequestExecutor);
 
 	private final Map<String, Set<String>> sourceToBreakpointIds = new ConcurrentHashMap<>();
+	private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+	private final CancellableRequestTracker cancellableRequestTracker = new CancellableRequestTracker();
+	private final RequestMetrics requestMetrics = new RequestMetrics();
+	private final TelemetryAggregator telemetry = new TelemetryAggregator(this::sendTelemetryEvent, TelemetryAggregator.DEFAULT_CAPACITY);
+	private volatile ScheduledFuture<?> telemetryTask;
+	private final AtomicBoolean sessionEnded = new AtomicBoolean();
 
 	public void connect(IDebugProtocolClient clientProxy) {
-		this.client = clientProxy;
+		ClientEventDispatcher previousClient = client;
+		this.client = new ClientEventDispatcher(clientProxy);
+		if (previousClient != null) {
+			previousClient.close();
+		}
 	}
 	
 	@Override
 	public CompletableFuture<Capabilities> initialize(InitializeRequestArguments args) {
-		return supplyAsync(
+		return timed("initialize", supplyAsync(
 			() -> {
 				Capabilities capabilities = new Capabilities();
 				capabilities.setSupportsSetVariable(Boolean.TRUE);
 				capabilities.setSupportsConditionalBreakpoints(Boolean.TRUE);
 				capabilities.setSupportsConfigurationDoneRequest(Boolean.TRUE);
+				capabilities.setSupportsCancelRequest(Boolean.TRUE);
+				capabilities.setSupportsEvaluateForHovers(Boolean.TRUE);
 				return capabilities;
 			}
-		);
+		));
 	}
 	
 	@Override
 	public CompletableFuture<Void> attach(Map<String, Object> args) {
-		return runAsync(
+		return timed("attach", runAsync(
 			() -> {
-				IDebugProtocolClient protocolClient = client;
+				ClientEventDispatcher protocolClient = client;
 				boolean attached = connectionManager.attach(args, protocolClient);
 				if (attached) {
 					protocolClient.initialized();
+					scheduleTelemetry();
 				}
-				OutputEventArguments telemetryEvent = new OutputEventArguments();
-				telemetryEvent.setCategory(OutputEventArgumentsCategory.TELEMETRY);
-				telemetryEvent.setOutput("camel.dap.attach");
-				telemetryEvent.setData(new TelemetryEvent("camel.dap.attach", Collections.singletonMap("success", attached)));
-				protocolClient.output(telemetryEvent);
+				// Sent immediately as it is counting the sessions, even the ones ending abruptly
+				telemetry.sendNow(TELEMETRY_ATTACH, Collections.singletonMap("success", attached));
+				// The client expects the initialized event before the response
+				protocolClient.flush().join();
 			}
-		);
+		));
 	}
 	
 	@Override
 	public CompletableFuture<SetBreakpointsResponse> setBreakpoints(SetBreakpointsArguments setBreakpointsArguments) {
-		return supplyAsync(() -> setBreakpointsSync(setBreakpointsArguments));
+		return timed("setBreakpoints", withEventsSent(supplyAsync(() -> setBreakpointsSync(setBreakpointsArguments))));
 	}
 
 	private SetBreakpointsResponse setBreakpointsSync(SetBreakpointsArguments setBreakpointsArguments) {
@@ -143,19 +208,18 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 			breakpoints[i] = breakpoint;
 			Document routesDOMDocument = connectionManager.getRoutesDOMDocument();
 			if (routesDOMDocument != null) {
-				String path = "//*[@sourceLineNumber='" + line + "']";
-				//TODO: take care of sourceLocation and not only line number
-				// "//*[@sourceLocation='" + sourceLocation + "' and @sourceLineNumber='" + line + "']";
-
 				try {
-					XPath xPath = XPathFactory.newInstance().newXPath();
-					Node breakpointTagFromContext = (Node) xPath.evaluate(path, routesDOMDocument, XPathConstants.NODE);
+					RouteLookupEvent lookupEvent = new RouteLookupEvent();
+					lookupEvent.begin();
+					Node breakpointTagFromContext = findNodeAtLine(routesDOMDocument, line);
+					lookupEvent.complete(RouteLookupEvent.KIND_SOURCE_LINE, source.getPath() + ":" + line, breakpointTagFromContext != null);
 					if (breakpointTagFromContext != null) {
 						String nodeId = breakpointTagFromContext.getAttributes().getNamedItem("id").getTextContent();
 						breakpoint.setNodeId(nodeId);
+						breakpoint.setCondition(sourceBreakpoint.getCondition());
 						connectionManager.updateBreakpointsWithSources(breakpoint);
 						breakpointIds.add(nodeId);
-						addBreakpoint(sourceBreakpoint, nodeId);
+						connectionManager.addBreakpoint(breakpoint);
 						breakpoint.setVerified(true);
 					} else {
 						breakpoint.setMessage(String.format(BREAKPOINT_MESSAGE_CANNOT_FIND_ID, source.getPath(), line));
@@ -172,20 +236,17 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 			}
 		}
 		removeOldBreakpoints(source, breakpointIds);
-		sourceToBreakpointIds.put(source.getPath(), breakpointIds);
+		if (breakpointIds.isEmpty()) {
+			// Not kept for all the files in which breakpoints have been cleared during a long session
+			sourceToBreakpointIds.remove(source.getPath());
+		} else {
+			sourceToBreakpointIds.put(source.getPath(), breakpointIds);
+		}
 		SetBreakpointsResponse response = new SetBreakpointsResponse();
 		response.setBreakpoints(breakpoints);
 		return response;
 	}
 
-	private void addBreakpoint(SourceBreakpoint sourceBreakpoint, String nodeId) {
-		if (sourceBreakpoint.getCondition() != null) {
-			connectionManager.getBacklogDebugger().addConditionalBreakpoint(nodeId, CAMEL_LANGUAGE_SIMPLE, sourceBreakpoint.getCondition());
-		} else {
-			connectionManager.getBacklogDebugger().addBreakpoint(nodeId);
-		}
-	}
-
 	private void removeOldBreakpoints(Source source, Set<String> breakpointIds) {
 		Set<String> previouslySetBreakpointIds = sourceToBreakpointIds.getOrDefault(source.getPath(), Collections.emptySet());
 		for (String previouslySetBreakpointId : previouslySetBreakpointIds) {
@@ -197,7 +258,7 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 	
 	@Override
 	public CompletableFuture<ThreadsResponse> threads() {
-		return supplyAsync(
+		return timed("threads", requestCoalescer.coalesce("threads", null, () -> supplyAsync(
 			() -> {
 				Set<org.eclipse.lsp4j.debug.Thread> threads = connectionManager.getAllThreads();
 				ThreadsResponse value = new ThreadsResponse();
@@ -205,15 +266,15 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 				LOGGER.info("there are " + threads.size() + " threads");
 				return value;
 			}
-		);
+		)));
 	}
 	
 	@Override
 	public CompletableFuture<StackTraceResponse> stackTrace(StackTraceArguments args) {
-		return supplyAsync(
+		return timed("stackTrace", requestCoalescer.coalesce("stackTrace", args, () -> supplyAsync(
 			() -> {
-				Set<CamelExchangeThread> camelThreads = connectionManager.getCamelExchangeThreads();
-				Optional<CamelExchangeThread> camelThreadOptional = camelThreads.stream().filter(camelThread -> camelThread.getId() == args.getThreadId()).findAny();
+				Optional<CamelExchangeThread> camelThreadOptional = connectionManager.getCamelExchangeThread(args.getThreadId())
+						.map(connectionManager::materialize);
 				Set<StackFrame> stackFrames = new HashSet<>();
 				if (camelThreadOptional.isPresent()) {
 					CamelExchangeThread camelThread = camelThreadOptional.get();
@@ -223,12 +284,12 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 				response.setStackFrames(stackFrames.toArray(new StackFrame[0]));
 				return response;
 			}
-		);
+		)));
 	}
 	
 	@Override
 	public CompletableFuture<ScopesResponse> scopes(ScopesArguments args) {
-		return supplyAsync(
+		return timed("scopes", cancellableRequestTracker.track(requestCoalescer.coalesce("scopes", args, () -> supplyAsync(
 			() -> {
 				Optional<CamelStackFrame> camelStackFrameOptional = connectionManager.getCamelExchangeThreads().stream()
 					.map(CamelExchangeThread::getStackFrame)
@@ -242,33 +303,99 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 				response.setScopes(scopes.toArray(new Scope[0]));
 				return response;
 			}
-		);
+		))));
 	}
 
 	@Override
 	public CompletableFuture<VariablesResponse> variables(VariablesArguments args) {
-		return supplyAsync(
+		return timed("variables", cancellableRequestTracker.track(requestCoalescer.coalesce("variables", args, () -> supplyAsync(
+			() -> {
+				VariablesResponse response = new VariablesResponse();
+				response.setVariables(collectVariables(args.getVariablesReference()).toArray(new Variable[0]));
+				return response;
+			}
+		))));
+	}
+
+	/**
+	 * @param variablesReference the reference of a scope or of a structured variable
+	 * @return the variables referenced, searched in all the suspended exchanges
+	 */
+	Set<Variable> collectVariables(int variablesReference) {
+		Set<Variable> variables = new HashSet<>();
+		ManagedBacklogDebuggerMBean debugger = connectionManager.getBacklogDebugger();
+		for (CamelExchangeThread camelThread : connectionManager.getCamelExchangeThreads()) {
+			variables.addAll(camelThread.createVariables(variablesReference, debugger));
+		}
+		return variables;
+	}
+
+	@Override
+	public CompletableFuture<EvaluateResponse> evaluate(EvaluateArguments args) {
+		// The expressions typed in the debug console may have side effects or give a different result each time
+		boolean cacheable = EvaluateArgumentsContext.WATCH.equals(args.getContext()) || EvaluateArgumentsContext.HOVER.equals(args.getContext());
+		Supplier<CompletableFuture<EvaluateResponse>> request = () -> supplyAsync(
 			() -> {
-				Set<Variable> variables = new HashSet<>();
+				CamelStackFrame stackFrame = findStackFrameToEvaluate(args.getFrameId());
+				CamelExpression expression = CamelExpression.parse(args.getExpression());
+				if (EvaluateArgumentsContext.WATCH.equals(args.getContext())) {
+					// Evaluated again as soon as the next exchange is suspended
+					connectionManager.getWatchExpressions().watched(expression);
+				}
 				ManagedBacklogDebuggerMBean debugger = connectionManager.getBacklogDebugger();
-				for (CamelExchangeThread camelThread : connectionManager.getCamelExchangeThreads()) {
-					variables.addAll(camelThread.createVariables(args.getVariablesReference(), debugger));
+				EvaluateResponse response = new EvaluateResponse();
+				try {
+					response.setResult(cacheable ? stackFrame.evaluate(expression, debugger) : stackFrame.evaluateUncached(expression, debugger));
+				} catch (CancellationException e) {
+					throw e;
+				} catch (RuntimeException e) {
+					LOGGER.debug("Cannot evaluate " + args.getExpression(), e);
+					throw new ResponseErrorException(new ResponseError(ResponseErrorCode.InternalError,
+							"Cannot evaluate " + args.getExpression() + ": " + e.getMessage(), null));
 				}
-				VariablesResponse response = new VariablesResponse();
-				response.setVariables(variables.toArray(new Variable[0]));
 				return response;
 			}
 		);
+		return timed("evaluate", cancellableRequestTracker.track(cacheable ? requestCoalescer.coalesce("evaluate", args, request) : request.get()));
+	}
+
+
+	/**
+	 * @param frameId the id of the stack frame provided by the client, null when the expression is typed without a
+	 *                selected stack frame
+	 * @return the stack frame of the exchange on which the expression is evaluated. Without a stack frame, the only
+	 *         suspended exchange is selected.
+	 */
+	private CamelStackFrame findStackFrameToEvaluate(Integer frameId) {
+		List<CamelStackFrame> stackFrames = connectionManager.getCamelExchangeThreads().stream()
+				.map(CamelExchangeThread::getStackFrame)
+				.filter(stackFrame -> frameId == null || frameId == stackFrame.getId())
+				.toList();
+		if (stackFrames.size() == 1) {
+			return stackFrames.get(0);
+		}
+		String message = stackFrames.isEmpty() ? "No suspended exchange to evaluate the expression on" : "Several exchanges are suspended, select the one to evaluate the expression on";
+		throw new ResponseErrorException(new ResponseError(ResponseErrorCode.InvalidParams, message, null));
+	}
+
+	@Override
+	public CompletableFuture<Void> cancel(CancelArguments args) {
+		// Handled directly on the thread reading the messages as it is cheap and must not wait behind other requests
+		if (!cancellableRequestTracker.cancel(args.getRequestId())) {
+			LOGGER.debug("No cancellable request in progress with seq {}", args.getRequestId());
+		}
+		return timed("cancel", CompletableFuture.completedFuture(null));
 	}
 
 	@Override
 	public CompletableFuture<Void> pause(PauseArguments args) {
-		return runAsync(() -> connectionManager.suspend(args));
+		return timed("pause", withEventsSent(runAsync(controlRequestExecutor, () -> connectionManager.suspend(args))));
 	}
 
 	@Override
 	public CompletableFuture<ContinueResponse> continue_(ContinueArguments args) {
-		return supplyAsync(
+		telemetry.record(TELEMETRY_CONTINUE, Map.of("allThreads", args.getThreadId() == 0));
+		return timed("continue", withEventsSent(supplyAsync(controlRequestExecutor,
 			() -> {
 				ContinueResponse response = new ContinueResponse();
 				int threadId = args.getThreadId();
@@ -285,16 +412,65 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 				}
 				return response;
 			}
-		);
+		)));
 	}
 
-	private Optional<org.eclipse.lsp4j.debug.Thread> findThread(int threadId) {
-		return connectionManager.getAllThreads().stream().filter(camelThread -> camelThread.getId() == threadId).findAny();
+	/**
+	 * Custom request resuming, or stepping, all the suspended exchanges matching a filter at once.
+	 */
+	@JsonRequest(REQUEST_RESUME_EXCHANGES)
+	public CompletableFuture<ResumeExchangesResponse> resumeExchanges(ResumeExchangesArguments args) {
+		return timed("resumeExchanges", withEventsSent(supplyAsync(controlRequestExecutor,
+			() -> {
+				ResumeExchangesResponse response = new ResumeExchangesResponse();
+				response.setResumedThreadsCount(connectionManager.resumeExchanges(args));
+				return response;
+			}
+		)));
+	}
+
+	/**
+	 * Custom request providing the metrics of the calls to the debugged application. It is answered immediately, without
+	 * waiting behind the other requests, so that it can be used to diagnose a slow session.
+	 */
+	@JsonRequest(REQUEST_JMX_METRICS)
+	public CompletableFuture<JmxMetricsResponse> jmxMetrics() {
+		JmxMetricsResponse response = new JmxMetricsResponse();
+		response.setOperations(connectionManager.getJmxCallMetrics().snapshot().entrySet().stream()
+				.map(entry -> JmxOperationMetrics.of(entry.getKey(), entry.getValue()))
+				.toArray(JmxOperationMetrics[]::new));
+		return timed("jmxMetrics", CompletableFuture.completedFuture(response));
+	}
+
+	/**
+	 * @param routesDOMDocument the routes with the source line numbers
+	 * @param line the line of a breakpoint
+	 * @return the node of the routes defined at this line, or null
+	 */
+	static Node findNodeAtLine(Document routesDOMDocument, int line) throws XPathExpressionException {
+		String path = "//*[@sourceLineNumber='" + line + "']";
+		//TODO: take care of sourceLocation and not only line number
+		// "//*[@sourceLocation='" + sourceLocation + "' and @sourceLineNumber='" + line + "']";
+		XPath xPath = XPathFactory.newInstance().newXPath();
+		return (Node) xPath.evaluate(path, routesDOMDocument, XPathConstants.NODE);
+	}
+
+	Optional<org.eclipse.lsp4j.debug.Thread> findThread(int threadId) {
+		Optional<org.eclipse.lsp4j.debug.Thread> camelExchangeThread = connectionManager.getCamelExchangeThread(threadId).map(org.eclipse.lsp4j.debug.Thread.class::cast);
+		if (camelExchangeThread.isPresent()) {
+			return camelExchangeThread;
+		}
+		return connectionManager.getCamelContextDefinitionThreads().stream().filter(camelThread -> camelThread.getId() == threadId).findAny().map(org.eclipse.lsp4j.debug.Thread.class::cast);
 	}
 	
 	@Override
 	public CompletableFuture<Void> next(NextArguments args) {
-		return runAsync(
+		telemetry.record(TELEMETRY_STEP, Map.of("kind", "next"));
+		return timed("next", doNext(args));
+	}
+
+	private CompletableFuture<Void> doNext(NextArguments args) {
+		return withEventsSent(runAsync(controlRequestExecutor,
 			() -> {
 				Optional<org.eclipse.lsp4j.debug.Thread> findAny = findThread(args.getThreadId());
 				if (findAny.isPresent()) {
@@ -302,7 +478,7 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 					connectionManager.next(camelThread);
 				}
 			}
-		);
+		));
 	}
 	
 	/**
@@ -315,7 +491,8 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 		nextArgs.setThreadId(args.getThreadId());
 		nextArgs.setGranularity(args.getGranularity());
 		nextArgs.setSingleThread(args.getSingleThread());
-		return next(nextArgs);
+		telemetry.record(TELEMETRY_STEP, Map.of("kind", "stepIn"));
+		return timed("stepIn", doNext(nextArgs));
 	}
 	
 	/**
@@ -328,28 +505,123 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 		nextArgs.setThreadId(args.getThreadId());
 		nextArgs.setGranularity(args.getGranularity());
 		nextArgs.setSingleThread(args.getSingleThread());
-		return next(nextArgs);
+		telemetry.record(TELEMETRY_STEP, Map.of("kind", "stepOut"));
+		return timed("stepOut", doNext(nextArgs));
 	}
 	
 	@Override
 	public CompletableFuture<Void> terminate(TerminateArguments args) {
-		return runAsync(connectionManager::terminate);
+		return timed("terminate", endSession());
 	}
 	
 	@Override
 	public CompletableFuture<Void> disconnect(DisconnectArguments args) {
-		return runAsync(connectionManager::terminate);
+		return timed("disconnect", endSession());
+	}
+
+	private CompletableFuture<Void> endSession() {
+		if (sessionEnded.get()) {
+			// For instance a disconnect request following the terminate one
+			return CompletableFuture.completedFuture(null);
+		}
+		return runAsync(controlRequestExecutor, this::terminateSession)
+				.exceptionally(error -> {
+					if (sessionEnded.get()) {
+						// Ended concurrently by another request
+						return null;
+					}
+					throw new CompletionException(error);
+				});
+	}
+
+	private void terminateSession() {
+		connectionManager.terminate();
+		ScheduledFuture<?> scheduledTelemetry = telemetryTask;
+		if (scheduledTelemetry != null) {
+			scheduledTelemetry.cancel(false);
+		}
+		flushTelemetry();
+		ClientEventDispatcher protocolClient = client;
+		if (protocolClient != null) {
+			protocolClient.flush().join();
+		}
+		if (sessionEnded.compareAndSet(false, true)) {
+			// Otherwise the threads of the session would outlive it, the current task is completed before its thread exits
+			if (protocolClient != null) {
+				protocolClient.close();
+			}
+			controlRequestExecutor.shutdown();
+			dataRequestExecutor.shutdown();
+		}
+	}
+
+	private synchronized void scheduleTelemetry() {
+		if (telemetryTask == null || telemetryTask.isDone()) {
+			telemetryTask = TELEMETRY_SCHEDULER.scheduleAtFixedRate(this::flushTelemetry,
+					TELEMETRY_INTERVAL_MINUTES, TELEMETRY_INTERVAL_MINUTES, TimeUnit.MINUTES);
+		}
+	}
+
+	/**
+	 * Sends the summary of the telemetry events recorded since the previous flush, and the latencies of the requests
+	 * received meanwhile, all the requests in a single event. The durations are in milliseconds.
+	 */
+	private void flushTelemetry() {
+		telemetry.flush();
+		Map<String, LatencyHistogram.Snapshot> latencies = requestMetrics.snapshotAndReset();
+		if (latencies.isEmpty()) {
+			return;
+		}
+		Map<String, Object> properties = new LinkedHashMap<>();
+		latencies.forEach((request, latency) -> {
+			properties.put(request + ".count", latency.count());
+			properties.put(request + ".p50", latency.p50());
+			properties.put(request + ".p90", latency.p90());
+			properties.put(request + ".p99", latency.p99());
+			properties.put(request + ".max", latency.max());
+		});
+		telemetry.sendNow(TELEMETRY_REQUESTS, properties);
+	}
+
+	private void sendTelemetryEvent(TelemetryEvent event) {
+		ClientEventDispatcher protocolClient = client;
+		if (protocolClient != null) {
+			OutputEventArguments telemetryEvent = new OutputEventArguments();
+			telemetryEvent.setCategory(OutputEventArgumentsCategory.TELEMETRY);
+			telemetryEvent.setOutput(event.name);
+			telemetryEvent.setData(event);
+			protocolClient.output(telemetryEvent);
+		}
+	}
+
+	/**
+	 * Records the latency of the request, and a telemetry event when it fails.
+	 *
+	 * @param request the name of the request
+	 * @param response the future of the response
+	 * @return the provided future
+	 * @param <T> the type of the response
+	 */
+	private <T> CompletableFuture<T> timed(String request, CompletableFuture<T> response) {
+		requestMetrics.time(request, response).whenComplete((result, error) -> {
+			if (error != null && !response.isCancelled()) {
+				Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+				telemetry.record(TELEMETRY_REQUEST_FAILED, Map.of("request", request, "error", cause.getClass().getName()));
+			}
+		});
+		return response;
 	}
 	
 	@Override
 	public CompletableFuture<SetVariableResponse> setVariable(SetVariableArguments args) {
-		return supplyAsync(
+		return timed("setVariable", withEventsSent(supplyAsync(
 			() -> {
 				for(CamelExchangeThread thread : connectionManager.getCamelExchangeThreads()) {
 					for(CamelScope scope : thread.getStackFrame().getScopes()) {
 						try {
 							SetVariableResponse response = scope.setVariableIfInScope(args, connectionManager.getBacklogDebugger());
 							if (response != null) {
+								thread.getStackFrame().discardPrefetchedVariables();
 								return response;
 							}
 						} catch (Exception ex) {
@@ -363,7 +635,7 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 				}
 				return null;
 			}
-		);
+		)));
 	}
 	
 	
@@ -371,6 +643,13 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 	public BacklogDebuggerConnectionManager getConnectionManager() {
 		return connectionManager;
 	}
+
+	/**
+	 * @return the ids of the breakpoints set, by path of their source
+	 */
+	public Map<String, Set<String>> getSourceToBreakpointIds() {
+		return Collections.unmodifiableMap(sourceToBreakpointIds);
+	}
 	
 	/**
 	 * Used for test only.
@@ -384,61 +663,88 @@ public class CamelDebugAdapterServer implements IDebugProtocolServer {
 	@Override
 	public CompletableFuture<Void> configurationDone(ConfigurationDoneArguments args) {
 		// Resume potentially the message processing
-		return runAsync(
+		return timed("configurationDone", runAsync(
 			() -> {
 				try {
-					connectionManager.getBacklogDebugger().attach();
+					connectionManager.attachDebugger();
 				} catch (Exception e) {
 					LOGGER.warn("Could not attach the debugger: {}", e.getMessage());
 				}
 			}
-		);
+		));
+	}
+
+	public RequestExecutor getControlRequestExecutor() {
+		return controlRequestExecutor;
+	}
+
+	public RequestExecutor getDataRequestExecutor() {
+		return dataRequestExecutor;
+	}
+
+	/**
+	 * Completes the response only once the events produced while handling the request have been sent, so that the
+	 * client receives them before the response.
+	 *
+	 * @param response the future of the response of the request
+	 * @return the future completed once the events have been sent
+	 * @param <U> the type of the response
+	 */
+	private <U> CompletableFuture<U> withEventsSent(CompletableFuture<U> response) {
+		ClientEventDispatcher protocolClient = client;
+		if (protocolClient == null) {
+			return response;
+		}
+		// Also when the request fails, as events such as the output of the error may have been produced
+		return response.handle((result, error) -> protocolClient.flush())
+				.thenCompose(flushed -> flushed)
+				.thenCompose(flushed -> response);
 	}
 
 	/**
-	 * Executes asynchronously the given task ensuring that the context class loader is properly set to ensure that
-	 * the classes from third party libraries are found.
+	 * Executes asynchronously the given task on the executor dedicated to the data requests.
 	 *
 	 * @param runnable the task to execute
 	 * @return the new CompletableFuture
 	 */
-	private static CompletableFuture<Void> runAsync(Runnable runnable) {
-		final ClassLoader callerCCL = Thread.currentThread().getContextClassLoader();
-		return CompletableFuture.runAsync(
-			() -> {
-				final ClassLoader currentCCL = Thread.currentThread().getContextClassLoader();
-				try {
-					Thread.currentThread().setContextClassLoader(callerCCL);
-					runnable.run();
-				} finally {
-					Thread.currentThread().setContextClassLoader(currentCCL);
-				}
-			}
-		);
+	private CompletableFuture<Void> runAsync(Runnable runnable) {
+		return runAsync(dataRequestExecutor, runnable);
+	}
+
+	/**
+	 * Executes asynchronously the given task on the provided executor. The context class loader is propagated to
+	 * ensure that the classes from third party libraries are found.
+	 *
+	 * @param executor the executor of the lane of the request
+	 * @param runnable the task to execute
+	 * @return the new CompletableFuture
+	 */
+	private static CompletableFuture<Void> runAsync(RequestExecutor executor, Runnable runnable) {
+		return executor.runAsync(runnable);
 	}
 
 	/**
-	 * Calls asynchronously the given supplier ensuring that the context class loader is properly set to ensure that
-	 * the classes from third party libraries are found.
+	 * Calls asynchronously the given supplier on the executor dedicated to the data requests.
 	 *
 	 * @param supplier the supplier to call
 	 * @return the new CompletableFuture
 	 * @param <U> the type of the result
 	 */
-	private static <U> CompletableFuture<U> supplyAsync(Supplier<U> supplier) {
-		final ClassLoader callerCCL = Thread.currentThread().getContextClassLoader();
-		return CompletableFuture.supplyAsync(
-			() -> {
-				final ClassLoader currentCCL = Thread.currentThread().getContextClassLoader();
-				try {
-					Thread.currentThread().setContextClassLoader(callerCCL);
-					return supplier.get();
-				} finally {
-					Thread.currentThread().setContextClassLoader(currentCCL);
-				}
-			}
-		);
+	private <U> CompletableFuture<U> supplyAsync(Supplier<U> supplier) {
+		return supplyAsync(dataRequestExecutor, supplier);
 	}
 
+	/**
+	 * Calls asynchronously the given supplier on the provided executor. The context class loader is propagated to
+	 * ensure that the classes from third party libraries are found.
+	 *
+	 * @param executor the executor of the lane of the request
+	 * @param supplier the supplier to call
+	 * @return the new CompletableFuture
+	 * @param <U> the type of the result
+	 */
+	private static <U> CompletableFuture<U> supplyAsync(RequestExecutor executor, Supplier<U> supplier) {
+		return executor.supplyAsync(supplier);
+	}
 
 }
@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+
+/**
+ * Applies a blocking operation, typically a JMX call, to many items with a limited number of concurrent calls, so that
+ * the remote application is not flooded.
+ */
+public final class BoundedParallelism {
+
+	private BoundedParallelism() {
+	}
+
+	/**
+	 * The calling thread is one of the workers and it waits only for the items being processed, not for the workers
+	 * which have not started yet, so that the items are still processed when the executor is saturated.
+	 *
+	 * @param items the items to process
+	 * @param maxParallelism the maximum number of items processed at the same time
+	 * @param executor the executor running the additional workers
+	 * @param operation the operation applied to each item, returning whether it succeeded
+	 * @return the items for which the operation succeeded
+	 * @param <T> the type of the items
+	 */
+	public static <T> List<T> forEach(Collection<T> items, int maxParallelism, Executor executor, Predicate<T> operation) {
+		Queue<T> remainingItems = new ConcurrentLinkedQueue<>(items);
+		CountDownLatch processedItems = new CountDownLatch(remainingItems.size());
+		List<T> succeededItems = Collections.synchronizedList(new ArrayList<>());
+		Runnable worker = () -> {
+			T item;
+			while ((item = remainingItems.poll()) != null) {
+				try {
+					if (operation.test(item)) {
+						succeededItems.add(item);
+					}
+				} finally {
+					processedItems.countDown();
+				}
+			}
+		};
+		int additionalWorkers = Math.min(maxParallelism, remainingItems.size()) - 1;
+		try {
+			for (int i = 0; i < additionalWorkers; i++) {
+				executor.execute(worker);
+			}
+		} catch (RejectedExecutionException e) {
+			// The remaining items are processed by the calling thread
+		}
+		worker.run();
+		try {
+			processedItems.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Interrupted while waiting for the items to be processed");
+		}
+		return new ArrayList<>(succeededItems);
+	}
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+
+/**
+ * Keeps track of the requests in progress by their sequence number, so that they can be cancelled by the client with
+ * the DAP cancel request.
+ * <p>
+ * The sequence number of a request is not available in the arguments of the DAP requests. It is captured by wrapping
+ * the message consumer of the launcher: the service methods are called synchronously by this consumer, on the thread
+ * reading the messages.
+ */
+public class CancellableRequestTracker {
+
+	private static final ThreadLocal<Integer> CURRENT_REQUEST_SEQ = new ThreadLocal<>();
+
+	private final Map<Integer, CompletableFuture<?>> inProgressRequests = new ConcurrentHashMap<>();
+
+	/**
+	 * @param consumer the consumer receiving the messages
+	 * @return a consumer exposing the sequence number of the request while it is consumed
+	 */
+	public static MessageConsumer wrap(MessageConsumer consumer) {
+		return message -> {
+			if (message instanceof RequestMessage requestMessage) {
+				runWithRequestSeq(parseSeq(requestMessage.getId()), () -> consumer.consume(message));
+			} else {
+				consumer.consume(message);
+			}
+		};
+	}
+
+	private static Integer parseSeq(String id) {
+		try {
+			return id != null ? Integer.valueOf(id) : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param seq the sequence number of the request handled by the runnable
+	 * @param runnable the handling of the request
+	 */
+	public static void runWithRequestSeq(Integer seq, Runnable runnable) {
+		Integer previousSeq = CURRENT_REQUEST_SEQ.get();
+		CURRENT_REQUEST_SEQ.set(seq);
+		try {
+			runnable.run();
+		} finally {
+			CURRENT_REQUEST_SEQ.set(previousSeq);
+		}
+	}
+
+	/**
+	 * Registers the future of the request currently handled, if any, until its completion.
+	 *
+	 * @param future the future of the request
+	 * @return the provided future
+	 * @param <T> the type of the result
+	 */
+	public <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+		Integer seq = CURRENT_REQUEST_SEQ.get();
+		if (seq != null) {
+			inProgressRequests.put(seq, future);
+			future.whenComplete((result, error) -> inProgressRequests.remove(seq, future));
+		}
+		return future;
+	}
+
+	/**
+	 * @param seq the sequence number of the request to cancel
+	 * @return whether a request in progress has been cancelled
+	 */
+	public boolean cancel(Integer seq) {
+		CompletableFuture<?> future = seq != null ? inProgressRequests.remove(seq) : null;
+		return future != null && future.cancel(true);
+	}
+
+	public int getInProgressRequestsCount() {
+		return inProgressRequests.size();
+	}
+
+}
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+import org.eclipse.lsp4j.debug.BreakpointEventArguments;
+import org.eclipse.lsp4j.debug.ContinuedEventArguments;
+import org.eclipse.lsp4j.debug.ExitedEventArguments;
+import org.eclipse.lsp4j.debug.InvalidatedEventArguments;
+import org.eclipse.lsp4j.debug.OutputEventArguments;
+import org.eclipse.lsp4j.debug.StoppedEventArguments;
+import org.eclipse.lsp4j.debug.TerminatedEventArguments;
+import org.eclipse.lsp4j.debug.ThreadEventArguments;
+import org.eclipse.lsp4j.debug.services.IDebugProtocolClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.cameltooling.dap.internal.jfr.ClientEventDispatchEvent;
+
+/**
+ * Sends the events to the client from a single thread, in the order in which they have been produced.
+ * <p>
+ * The events are produced by the thread checking the suspended breakpoints and by the threads handling the requests.
+ * Calling the client directly from them could reorder the events, for instance sending a thread exited event before
+ * the started one, and was blocking them while writing on the connection. The producers are now only queuing the
+ * events. The queued events are delivered by batches and identical consecutive thread events are sent only once.
+ */
+public class ClientEventDispatcher implements IDebugProtocolClient {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ClientEventDispatcher.class);
+
+	private final IDebugProtocolClient client;
+	private final BlockingQueue<ClientEvent> queue = new LinkedBlockingQueue<>();
+	private final Object closeLock = new Object();
+	private volatile boolean closed;
+
+	public ClientEventDispatcher(IDebugProtocolClient client) {
+		this.client = client;
+		Thread dispatcherThread = new Thread(this::dispatchLoop, "Camel DAP - Client events");
+		dispatcherThread.setDaemon(true);
+		dispatcherThread.start();
+	}
+
+	private void dispatchLoop() {
+		List<ClientEvent> batch = new ArrayList<>();
+		while (!closed || !queue.isEmpty()) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			queue.drainTo(batch);
+			dispatch(batch);
+			batch.clear();
+		}
+	}
+
+	private void dispatch(List<ClientEvent> batch) {
+		ClientEventDispatchEvent dispatchEvent = new ClientEventDispatchEvent();
+		dispatchEvent.begin();
+		int sentEvents = 0;
+		ThreadEventArguments previousThreadEvent = null;
+		for (ClientEvent event : batch) {
+			if (event.threadEvent() != null && event.threadEvent().equals(previousThreadEvent)) {
+				continue;
+			}
+			previousThreadEvent = event.threadEvent();
+			sentEvents++;
+			try {
+				event.delivery().accept(client);
+			} catch (Exception e) {
+				LOGGER.warn("Cannot send event to the client", e);
+			}
+		}
+		dispatchEvent.complete(batch.size(), sentEvents, queue.size());
+	}
+
+	private void enqueue(Consumer<IDebugProtocolClient> delivery) {
+		queue.add(new ClientEvent(delivery, null));
+	}
+
+	/**
+	 * @return a future completed once all the events queued before have been sent to the client
+	 */
+	public CompletableFuture<Void> flush() {
+		CompletableFuture<Void> flushed = new CompletableFuture<>();
+		// Otherwise the dispatcher thread could stop between the check and the enqueuing, never completing the future
+		synchronized (closeLock) {
+			if (closed) {
+				flushed.complete(null);
+			} else {
+				enqueue(delegate -> flushed.complete(null));
+			}
+		}
+		return flushed;
+	}
+
+	/**
+	 * Stops the dispatching once the events already queued have been sent.
+	 */
+	public void close() {
+		synchronized (closeLock) {
+			closed = true;
+			// Wakes up the dispatcher thread if it is waiting for events
+			enqueue(delegate -> {});
+		}
+	}
+
+	public int getQueueSize() {
+		return queue.size();
+	}
+
+	@Override
+	public void initialized() {
+		enqueue(IDebugProtocolClient::initialized);
+	}
+
+	@Override
+	public void stopped(StoppedEventArguments args) {
+		enqueue(delegate -> delegate.stopped(args));
+	}
+
+	@Override
+	public void continued(ContinuedEventArguments args) {
+		enqueue(delegate -> delegate.continued(args));
+	}
+
+	@Override
+	public void exited(ExitedEventArguments args) {
+		enqueue(delegate -> delegate.exited(args));
+	}
+
+	@Override
+	public void terminated(TerminatedEventArguments args) {
+		enqueue(delegate -> delegate.terminated(args));
+	}
+
+	@Override
+	public void thread(ThreadEventArguments args) {
+		queue.add(new ClientEvent(delegate -> delegate.thread(args), args));
+	}
+
+	@Override
+	public void output(OutputEventArguments args) {
+		enqueue(delegate -> delegate.output(args));
+	}
+
+	@Override
+	public void breakpoint(BreakpointEventArguments args) {
+		enqueue(delegate -> delegate.breakpoint(args));
+	}
+
+	@Override
+	public void invalidated(InvalidatedEventArguments args) {
+		enqueue(delegate -> delegate.invalidated(args));
+	}
+
+	/**
+	 * @param threadEvent the arguments of a thread event, used to detect identical consecutive thread events, or null
+	 */
+	private record ClientEvent(Consumer<IDebugProtocolClient> delivery, ThreadEventArguments threadEvent) {}
+
+}
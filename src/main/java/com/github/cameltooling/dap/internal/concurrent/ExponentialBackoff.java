@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import java.util.Random;
+
+/**
+ * Computes the delays between the attempts of an operation which keeps failing, for instance a reconnection. The delay
+ * doubles at each attempt up to a maximum, and a random jitter avoids retrying in lockstep with other clients.
+ */
+public class ExponentialBackoff {
+
+	private final long initialDelayMillis;
+	private final long maxDelayMillis;
+	private final Random random;
+	private int attempts;
+
+	public ExponentialBackoff(long initialDelayMillis, long maxDelayMillis) {
+		this(initialDelayMillis, maxDelayMillis, new Random());
+	}
+
+	ExponentialBackoff(long initialDelayMillis, long maxDelayMillis, Random random) {
+		this.initialDelayMillis = initialDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+		this.random = random;
+	}
+
+	/**
+	 * @return the delay before the next attempt, between half and the whole of the exponential delay
+	 */
+	public synchronized long nextDelayMillis() {
+		long exponentialDelay = Math.min(maxDelayMillis, initialDelayMillis << Math.min(attempts, 30));
+		attempts++;
+		long halfDelay = exponentialDelay / 2;
+		return halfDelay + random.nextLong(exponentialDelay - halfDelay + 1);
+	}
+
+	public synchronized void reset() {
+		attempts = 0;
+	}
+
+	public synchronized int getAttempts() {
+		return attempts;
+	}
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares the result of a request between all the identical requests received while it is in progress.
+ * Clients are regularly sending the same request several times, for instance when several views are refreshed together.
+ */
+public class RequestCoalescer {
+
+	private final Map<RequestKey, InFlightRequest> inFlightRequests = new ConcurrentHashMap<>();
+
+	/**
+	 * @param requestType the type of the request, for instance the name of the DAP request
+	 * @param arguments the arguments of the request, they must implement equals and hashCode
+	 * @param request starts the request if no identical one is already in progress
+	 * @return a future completed with the result of the request in progress. Cancelling it cancels the shared request
+	 *         only when all the callers waiting for it have cancelled.
+	 * @param <T> the type of the result
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> CompletableFuture<T> coalesce(String requestType, Object arguments, Supplier<CompletableFuture<T>> request) {
+		RequestKey key = new RequestKey(requestType, arguments);
+		InFlightRequest inFlight = inFlightRequests.compute(key, (k, existing) -> {
+			InFlightRequest joined = existing != null && !existing.future.isDone() ? existing : new InFlightRequest(request.get());
+			joined.waiters++;
+			return joined;
+		});
+		inFlight.future.whenComplete((result, error) -> inFlightRequests.remove(key, inFlight));
+		// A copy is returned so that what is done by one caller on the future is not impacting the others
+		CompletableFuture<T> copy = (CompletableFuture<T>) inFlight.future.copy();
+		copy.whenComplete((result, error) -> {
+			if (copy.isCancelled()) {
+				leave(key, inFlight);
+			}
+		});
+		return copy;
+	}
+
+	private void leave(RequestKey key, InFlightRequest inFlight) {
+		boolean lastWaiter = inFlightRequests.computeIfPresent(key, (k, existing) -> {
+			if (existing != inFlight) {
+				return existing;
+			}
+			existing.waiters--;
+			return existing.waiters > 0 ? existing : null;
+		}) == null;
+		if (lastWaiter) {
+			inFlight.future.cancel(true);
+		}
+	}
+
+	public int getInFlightRequestsCount() {
+		return inFlightRequests.size();
+	}
+
+	private record RequestKey(String requestType, Object arguments) {}
+
+	/**
+	 * The waiters are updated only in the remapping functions of the map, which are executed atomically.
+	 */
+	private static class InFlightRequest {
+
+		private final CompletableFuture<?> future;
+		private int waiters;
+
+		InFlightRequest(CompletableFuture<?> future) {
+			this.future = future;
+		}
+	}
+
+}
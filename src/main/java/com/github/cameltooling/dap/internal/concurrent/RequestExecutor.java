@@ -0,0 +1,280 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.cameltooling.dap.internal.metrics.LatencyHistogram;
+
+/**
+ * Executor dedicated to the handling of the requests. The handlers are mostly waiting for synchronous JMX calls, so
+ * they must not be executed on the common ForkJoin pool which has only a few workers on small containers.
+ *
+ * It is using virtual threads when running on Java 21+ and a bounded pool of platform threads otherwise. It can be
+ * configured with the system properties {@value #PROPERTY_EXECUTOR_TYPE} (auto, virtual or platform) and
+ * {@value #PROPERTY_EXECUTOR_THREADS} (maximum number of platform threads).
+ */
+public class RequestExecutor implements Executor {
+
+	public static final String PROPERTY_EXECUTOR_TYPE = "camel.dap.executor";
+	public static final String PROPERTY_EXECUTOR_THREADS = "camel.dap.executor.threads";
+	public static final String EXECUTOR_TYPE_VIRTUAL = "virtual";
+	public static final String EXECUTOR_TYPE_PLATFORM = "platform";
+	static final int DEFAULT_MAX_THREADS = 16;
+	private static final long QUEUE_WAIT_WARNING_THRESHOLD_MS = 100;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RequestExecutor.class);
+
+	private final String name;
+	private final ExecutorService delegate;
+	private final boolean virtualThreads;
+	private final AtomicInteger queuedTasks = new AtomicInteger();
+	private final AtomicInteger maxQueuedTasks = new AtomicInteger();
+	private final AtomicInteger activeTasks = new AtomicInteger();
+	private final AtomicLong completedTasks = new AtomicLong();
+	private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+	/**
+	 * @param name the name of the executor, used for the thread names and the logs
+	 * @return an executor configured with the system properties
+	 */
+	public static RequestExecutor create(String name) {
+		String type = System.getProperty(PROPERTY_EXECUTOR_TYPE, "auto");
+		int maxThreads = Integer.getInteger(PROPERTY_EXECUTOR_THREADS, DEFAULT_MAX_THREADS);
+		return new RequestExecutor(name, !EXECUTOR_TYPE_PLATFORM.equals(type), maxThreads);
+	}
+
+	/**
+	 * @param name the name of the executor, used for the thread names and the logs
+	 * @param preferVirtualThreads whether virtual threads must be used when available
+	 * @param maxThreads the maximum number of threads when platform threads are used
+	 */
+	public RequestExecutor(String name, boolean preferVirtualThreads, int maxThreads) {
+		this.name = name;
+		ExecutorService virtualThreadsExecutor = preferVirtualThreads ? createVirtualThreadsExecutor() : null;
+		if (virtualThreadsExecutor != null) {
+			this.delegate = virtualThreadsExecutor;
+			this.virtualThreads = true;
+		} else {
+			ThreadPoolExecutor threadPool = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), createThreadFactory(name));
+			threadPool.allowCoreThreadTimeOut(true);
+			this.delegate = threadPool;
+			this.virtualThreads = false;
+		}
+	}
+
+	private static ExecutorService createVirtualThreadsExecutor() {
+		try {
+			Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factoryMethod.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			// Virtual threads are available only with Java 21+
+			return null;
+		}
+	}
+
+	private static ThreadFactory createThreadFactory(String name) {
+		AtomicInteger threadCounter = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, "Camel DAP - " + name + " " + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Executes the given task ensuring that the context class loader of the caller is set, so that the classes from
+	 * third party libraries are found.
+	 */
+	@Override
+	public void execute(Runnable runnable) {
+		final ClassLoader callerCCL = Thread.currentThread().getContextClassLoader();
+		final long submissionTime = System.nanoTime();
+		int queueDepth = queuedTasks.incrementAndGet();
+		maxQueuedTasks.accumulateAndGet(queueDepth, Math::max);
+		try {
+			execute(runnable, callerCCL, submissionTime);
+		} catch (RejectedExecutionException e) {
+			queuedTasks.decrementAndGet();
+			throw e;
+		}
+	}
+
+	private void execute(Runnable runnable, ClassLoader callerCCL, long submissionTime) {
+		delegate.execute(
+			() -> {
+				queuedTasks.decrementAndGet();
+				activeTasks.incrementAndGet();
+				logQueueWait(submissionTime);
+				final ClassLoader currentCCL = Thread.currentThread().getContextClassLoader();
+				try {
+					Thread.currentThread().setContextClassLoader(callerCCL);
+					runnable.run();
+				} finally {
+					Thread.currentThread().setContextClassLoader(currentCCL);
+					activeTasks.decrementAndGet();
+					completedTasks.incrementAndGet();
+					latencyHistogram.recordSince(submissionTime);
+				}
+			}
+		);
+	}
+
+	private void logQueueWait(long submissionTime) {
+		long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submissionTime);
+		if (waitedMillis > QUEUE_WAIT_WARNING_THRESHOLD_MS) {
+			LOGGER.debug("Task waited {} ms before being executed by {}", waitedMillis, this);
+		}
+	}
+
+	/**
+	 * @param runnable the task to execute
+	 * @return the new CompletableFuture, cancelling it interrupts the task
+	 */
+	public CompletableFuture<Void> runAsync(Runnable runnable) {
+		return supplyAsync(() -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * @param supplier the supplier to call
+	 * @return the new CompletableFuture, cancelling it interrupts the supplier
+	 * @param <U> the type of the result
+	 */
+	public <U> CompletableFuture<U> supplyAsync(Supplier<U> supplier) {
+		InterruptibleTask<U> task = new InterruptibleTask<>(supplier);
+		try {
+			execute(task);
+		} catch (RejectedExecutionException e) {
+			// Shut down at the end of the session
+			task.future.completeExceptionally(e);
+		}
+		return task.future;
+	}
+
+	/**
+	 * A task whose thread is interrupted when its future is cancelled, so that a cancelled request stops waiting for
+	 * the debugged application and frees its thread as soon as possible. The task is skipped if it is cancelled before
+	 * being started.
+	 */
+	private static class InterruptibleTask<U> implements Runnable {
+
+		private final Supplier<U> supplier;
+		private final CompletableFuture<U> future = new CompletableFuture<>();
+		private Thread runner;
+
+		InterruptibleTask(Supplier<U> supplier) {
+			this.supplier = supplier;
+			future.whenComplete((result, error) -> {
+				if (future.isCancelled()) {
+					interruptRunner();
+				}
+			});
+		}
+
+		private synchronized void interruptRunner() {
+			if (runner != null) {
+				runner.interrupt();
+			}
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (future.isDone()) {
+					return;
+				}
+				runner = Thread.currentThread();
+			}
+			try {
+				future.complete(supplier.get());
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			} finally {
+				synchronized (this) {
+					runner = null;
+				}
+				// Clears an interruption due to a cancellation so that it does not leak to the next task of this thread
+				Thread.interrupted();
+			}
+		}
+	}
+
+	public boolean isUsingVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * @return the number of tasks submitted and not yet started
+	 */
+	public int getQueueDepth() {
+		return queuedTasks.get();
+	}
+
+	/**
+	 * @return the highest number of tasks which have been waiting at the same time to be started
+	 */
+	public int getMaxQueueDepth() {
+		return maxQueuedTasks.get();
+	}
+
+	public int getActiveTaskCount() {
+		return activeTasks.get();
+	}
+
+	public long getCompletedTaskCount() {
+		return completedTasks.get();
+	}
+
+	/**
+	 * @return the durations of the tasks, from their submission to the end of their execution
+	 */
+	public LatencyHistogram getLatencyHistogram() {
+		return latencyHistogram;
+	}
+
+	/**
+	 * Stops accepting tasks, the tasks already submitted are still executed. The threads exit once they are idle.
+	 */
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public String toString() {
+		return name + " executor [virtualThreads=" + virtualThreads + ", queued=" + getQueueDepth() + ", maxQueued=" + getMaxQueueDepth()
+				+ ", active=" + getActiveTaskCount() + ", completed=" + getCompletedTaskCount() + ", latency=(" + latencyHistogram.snapshot() + ")]";
+	}
+
+}
@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("camel.dap.BreakpointInstall")
+@Label("Breakpoint Install")
+@Category({ "Camel", "Debug Adapter" })
+@Description("Addition of a breakpoint to the Camel backlog debugger")
+public class BreakpointInstallEvent extends Event {
+
+	@Label("Node Id")
+	String nodeId;
+
+	@Label("Conditional")
+	boolean conditional;
+
+	public void complete(String nodeId, boolean conditional) {
+		end();
+		if (shouldCommit()) {
+			this.nodeId = nodeId;
+			this.conditional = conditional;
+			commit();
+		}
+	}
+
+}
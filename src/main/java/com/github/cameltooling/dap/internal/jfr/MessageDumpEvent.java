@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jfr;
+
+import java.util.Collection;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("camel.dap.MessageDump")
+@Label("Message Dump")
+@Category({ "Camel", "Debug Adapter" })
+@Description("Retrieval of the messages of suspended exchanges from the Camel application")
+public class MessageDumpEvent extends Event {
+
+	@Label("Node Ids")
+	String nodeIds;
+
+	@Label("Node Count")
+	int nodeCount;
+
+	@Label("Size")
+	@Description("Number of characters of the dumped messages")
+	long size;
+
+	public void complete(String nodeId, String dump) {
+		end();
+		if (shouldCommit()) {
+			this.nodeIds = nodeId;
+			this.nodeCount = 1;
+			this.size = dump != null ? dump.length() : 0;
+			commit();
+		}
+	}
+
+	public void complete(Collection<String> nodeIds, Collection<String> dumps) {
+		end();
+		if (shouldCommit()) {
+			this.nodeIds = String.join(",", nodeIds);
+			this.nodeCount = nodeIds.size();
+			this.size = dumps.stream().mapToLong(dump -> dump != null ? dump.length() : 0).sum();
+			commit();
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("camel.dap.MessageParse")
+@Label("Message Parse")
+@Category({ "Camel", "Debug Adapter" })
+@Description("Unmarshalling of a message dumped by the Camel backlog debugger")
+public class MessageParseEvent extends Event {
+
+	@Label("Size")
+	@Description("Number of characters of the parsed XML")
+	long size;
+
+	@Label("Exchange Id")
+	String exchangeId;
+
+	@Label("Parsed")
+	boolean parsed;
+
+	public void complete(String xml, String exchangeId, boolean parsed) {
+		end();
+		if (shouldCommit()) {
+			this.size = xml != null ? xml.length() : 0;
+			this.exchangeId = exchangeId;
+			this.parsed = parsed;
+			commit();
+		}
+	}
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("camel.dap.Poll")
+@Label("Suspended Breakpoints Poll")
+@Category({ "Camel", "Debug Adapter" })
+@Description("An iteration checking the breakpoints suspended in the Camel application")
+public class PollEvent extends Event {
+
+	@Label("Suspended Nodes")
+	int suspendedNodes;
+
+	@Label("Newly Suspended Nodes")
+	int newlySuspendedNodes;
+
+	@Label("With Exchange Ids")
+	boolean withExchangeIds;
+
+	public void complete(int suspendedNodes, int newlySuspendedNodes, boolean withExchangeIds) {
+		end();
+		if (shouldCommit()) {
+			this.suspendedNodes = suspendedNodes;
+			this.newlySuspendedNodes = newlySuspendedNodes;
+			this.withExchangeIds = withExchangeIds;
+			commit();
+		}
+	}
+
+}
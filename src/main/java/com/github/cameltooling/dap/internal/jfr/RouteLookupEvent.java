@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("camel.dap.RouteLookup")
+@Label("Route Lookup")
+@Category({ "Camel", "Debug Adapter" })
+@Description("Search of a node in the routes retrieved from the Camel application")
+public class RouteLookupEvent extends Event {
+
+	public static final String KIND_SOURCE_LINE = "sourceLine";
+	public static final String KIND_NODE_ID = "nodeId";
+	public static final String KIND_LAST_IN_ROUTE = "lastInRoute";
+
+	@Label("Kind")
+	String kind;
+
+	@Label("Key")
+	@Description("The line or the node id searched")
+	String key;
+
+	@Label("Found")
+	boolean found;
+
+	public void complete(String kind, String key, boolean found) {
+		end();
+		if (shouldCommit()) {
+			this.kind = kind;
+			this.key = key;
+			this.found = found;
+			commit();
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.cameltooling.dap.internal.model.CamelExpression;
+
+/**
+ * Retrieves the state of the backlog debugger checked periodically: the suspended breakpoints and the messages of the
+ * newly suspended exchanges. It also evaluates the watch expressions of the newly suspended exchanges.
+ */
+public interface BacklogDebuggerPoller {
+
+	/**
+	 * @param withExchangeIds whether the ids of the suspended exchanges are needed
+	 * @return the suspended breakpoints
+	 */
+	SuspendedBreakpoints poll(boolean withExchangeIds);
+
+	/**
+	 * @param nodeIds the ids of the suspended nodes
+	 * @return the XML dump of the message suspended on each node, null or blank when the node is no longer suspended
+	 */
+	Map<String, String> dumpTracedMessages(Collection<String> nodeIds);
+
+	/**
+	 * @param nodeId the id of the node on which the exchange is suspended
+	 * @param expressions the expressions to evaluate on the exchange
+	 * @return the result of each expression converted to a String, the expressions which cannot be evaluated are
+	 *         missing
+	 */
+	Map<CamelExpression, String> evaluate(String nodeId, List<CamelExpression> expressions);
+
+	/**
+	 * @return whether several calls are sent in a single round trip, in which case there is no need to send them in
+	 *         parallel
+	 */
+	default boolean isBatching() {
+		return false;
+	}
+
+	/**
+	 * @param nodeIds the ids of the nodes on which an exchange is suspended
+	 * @param exchangeIds the ids of the suspended exchanges, null if not requested or not available with the Camel
+	 *        version of the debugged application
+	 */
+	record SuspendedBreakpoints(Set<String> nodeIds, Set<String> exchangeIds) {}
+
+}
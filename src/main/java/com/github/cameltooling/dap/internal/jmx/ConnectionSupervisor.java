@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.remote.JMXConnectionNotification;
+import javax.management.remote.JMXConnector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.cameltooling.dap.internal.concurrent.ExponentialBackoff;
+
+/**
+ * Watches the JMX connection and reconnects when it is lost, for instance when the debugged application is restarted.
+ * <p>
+ * The loss is detected by the notifications of the connector or reported by the users of the connection. The
+ * reconnection is retried with an exponential backoff until it succeeds or the supervisor is closed. The state of the
+ * debug session is then resynchronized in one pass with the new connection.
+ */
+public class ConnectionSupervisor implements NotificationListener {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionSupervisor.class);
+
+	/**
+	 * Resynchronizes the debug session with a new connection.
+	 */
+	@FunctionalInterface
+	public interface Resynchronizer {
+
+		/**
+		 * @param connector the new connector
+		 * @throws Exception if the session cannot be resynchronized, the reconnection is then retried
+		 */
+		void resynchronize(JMXConnector connector) throws Exception;
+	}
+
+	private final Callable<JMXConnector> connectorFactory;
+	private final Resynchronizer resynchronizer;
+	private final ExponentialBackoff backoff;
+	private final AtomicBoolean reconnecting = new AtomicBoolean();
+	private volatile JMXConnector connector;
+	private volatile Thread reconnectThread;
+	private volatile boolean closed;
+	private volatile int reconnections;
+
+	/**
+	 * @param connectorFactory creates a new connector, a single connection attempt is expected
+	 * @param resynchronizer resynchronizes the debug session once reconnected
+	 * @param backoff the delays between the reconnection attempts
+	 */
+	public ConnectionSupervisor(Callable<JMXConnector> connectorFactory, Resynchronizer resynchronizer, ExponentialBackoff backoff) {
+		this.connectorFactory = connectorFactory;
+		this.resynchronizer = resynchronizer;
+		this.backoff = backoff;
+	}
+
+	/**
+	 * @param connector the connector to watch
+	 */
+	public void supervise(JMXConnector connector) {
+		this.connector = connector;
+		connector.addConnectionNotificationListener(this, null, connector);
+	}
+
+	@Override
+	public void handleNotification(Notification notification, Object handback) {
+		// Notifications of a previous connector are ignored
+		if (handback == connector && (JMXConnectionNotification.FAILED.equals(notification.getType())
+				|| JMXConnectionNotification.CLOSED.equals(notification.getType()))) {
+			connectionLost(null);
+		}
+	}
+
+	/**
+	 * Starts reconnecting, unless a reconnection is already in progress.
+	 *
+	 * @param cause the failure revealing the loss of the connection, or null if notified by the connector
+	 */
+	public void connectionLost(Throwable cause) {
+		if (closed || !reconnecting.compareAndSet(false, true)) {
+			return;
+		}
+		LOGGER.warn("JMX connection lost, reconnecting", cause);
+		Thread thread = new Thread(this::reconnectLoop, "Camel DAP - Reconnect");
+		thread.setDaemon(true);
+		reconnectThread = thread;
+		thread.start();
+	}
+
+	private void reconnectLoop() {
+		closeQuietly(connector);
+		backoff.reset();
+		while (!closed) {
+			try {
+				Thread.sleep(backoff.nextDelayMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			JMXConnector newConnector = null;
+			try {
+				newConnector = connectorFactory.call();
+				resynchronizer.resynchronize(newConnector);
+				supervise(newConnector);
+				reconnections++;
+				reconnecting.set(false);
+				LOGGER.info("JMX connection restored after {} attempts", backoff.getAttempts());
+				return;
+			} catch (Exception e) {
+				LOGGER.debug("Reconnection attempt {} failed", backoff.getAttempts(), e);
+				closeQuietly(newConnector);
+			}
+		}
+	}
+
+	/**
+	 * @return whether the connection is established, false while reconnecting
+	 */
+	public boolean isConnected() {
+		return !reconnecting.get() && !closed;
+	}
+
+	public int getReconnections() {
+		return reconnections;
+	}
+
+	/**
+	 * @param error an error thrown by a call through the connection
+	 * @return whether the error is caused by a failure of the connection, not by a connection which is only degraded nor
+	 *         by a call interrupted as its request has been cancelled or the session terminated. The socket and connect
+	 *         timeouts are failures of the connection, even though they are also {@link InterruptedIOException}s.
+	 */
+	public static boolean isConnectionFailure(Throwable error) {
+		if (DegradedConnectionException.isCause(error)) {
+			return false;
+		}
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof InterruptedIOException && Thread.currentThread().isInterrupted()) {
+				return false;
+			}
+			if (cause instanceof IOException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Stops reconnecting and closes the current connection.
+	 */
+	public void close() {
+		closed = true;
+		Thread thread = reconnectThread;
+		if (thread != null) {
+			thread.interrupt();
+		}
+		JMXConnector currentConnector = connector;
+		if (currentConnector != null) {
+			try {
+				currentConnector.removeConnectionNotificationListener(this);
+			} catch (ListenerNotFoundException e) {
+				// Already removed
+			}
+			closeQuietly(currentConnector);
+		}
+	}
+
+	private static void closeQuietly(JMXConnector connector) {
+		if (connector != null) {
+			try {
+				connector.close();
+			} catch (IOException | RuntimeException e) {
+				LOGGER.debug("Error while closing the JMX connection", e);
+			}
+		}
+	}
+
+}
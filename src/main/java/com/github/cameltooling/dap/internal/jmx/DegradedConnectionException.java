@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a JMX call has not completed before its deadline or is rejected because the debugged application is
+ * not responding. The connection may still be alive, for instance during a long garbage collection pause.
+ */
+public class DegradedConnectionException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public DegradedConnectionException(String message) {
+		super(message);
+	}
+
+	/**
+	 * @param error an error thrown by a call through the connection
+	 * @return whether the error is caused by a degraded connection
+	 */
+	public static boolean isCause(Throwable error) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof DegradedConnectionException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,262 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.management.MBeanServerConnection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Guards the calls through a JMX connection so that a stalled debugged application, for instance during a long garbage
+ * collection pause or with saturated RMI threads, does not hang the debug adapter.
+ * <p>
+ * Each call has a deadline. After several consecutive failures, the circuit is opened: the calls are rejected
+ * immediately and the ones reading metadata, such as the attributes or the getters, are answered with the last value
+ * retrieved, if any. Once the circuit has been open
+ * for a while, a single trial call is let through and the circuit is closed again if it succeeds.
+ */
+public class GuardedConnection implements InvocationHandler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(GuardedConnection.class);
+	private static final int MAX_CACHED_RESULTS = 256;
+	private static final Set<String> READ_ONLY_METHODS = Set.of("getAttribute", "getAttributes", "queryNames", "queryMBeans",
+			"getMBeanInfo", "isRegistered", "isInstanceOf", "getMBeanCount", "getDefaultDomain", "getDomains");
+	private static final ExecutorService CALL_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "Camel DAP - JMX call");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Notified when the circuit is opened or closed.
+	 */
+	public interface CircuitListener {
+
+		void circuitOpened(Throwable cause);
+
+		void circuitClosed();
+	}
+
+	enum CircuitState {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final MBeanServerConnection delegate;
+	private final long callTimeoutMillis;
+	private final int failureThreshold;
+	private final long openDurationMillis;
+	private final CircuitListener listener;
+	private final Map<String, Object> lastResults = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+			return size() > MAX_CACHED_RESULTS;
+		}
+	});
+	private CircuitState state = CircuitState.CLOSED;
+	private int consecutiveFailures;
+	private long openedAtNanos;
+
+	/**
+	 * @param delegate the connection to guard
+	 * @param callTimeoutMillis the deadline of each call
+	 * @param failureThreshold the number of consecutive failures opening the circuit
+	 * @param openDurationMillis the duration during which the calls are rejected before a trial call
+	 * @param listener notified when the circuit is opened or closed
+	 */
+	public GuardedConnection(MBeanServerConnection delegate, long callTimeoutMillis, int failureThreshold, long openDurationMillis,
+			CircuitListener listener) {
+		this.delegate = delegate;
+		this.callTimeoutMillis = callTimeoutMillis;
+		this.failureThreshold = failureThreshold;
+		this.openDurationMillis = openDurationMillis;
+		this.listener = listener;
+	}
+
+	/**
+	 * @return a connection whose calls are guarded by this handler
+	 */
+	public MBeanServerConnection proxy() {
+		return (MBeanServerConnection) Proxy.newProxyInstance(MBeanServerConnection.class.getClassLoader(),
+				new Class<?>[] { MBeanServerConnection.class }, this);
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		if (method.getDeclaringClass() == Object.class) {
+			return method.invoke(this, args);
+		}
+		String cacheKey = isReadOnly(method, args) ? method.getName() + Arrays.deepToString(args) : null;
+		Object result;
+		try {
+			result = call(method.getName(), () -> method.invoke(delegate, args));
+		} catch (DegradedConnectionException e) {
+			return cachedResultOrThrow(cacheKey, e);
+		}
+		if (cacheKey != null) {
+			lastResults.put(cacheKey, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Guards a call reaching the debugged application without going through the JMX connection, for instance a
+	 * Jolokia bulk request, with the same deadline and circuit as the JMX calls.
+	 *
+	 * @param name the name of the call, used in the error messages
+	 * @param call the call, an {@link IOException} being considered as a failure of the connection
+	 * @return the result of the call
+	 * @throws DegradedConnectionException if the call has not completed before its deadline or the circuit is open
+	 * @throws Exception the error thrown by the call
+	 */
+	public <T> T call(String name, Callable<T> call) throws Exception {
+		if (!allowCall()) {
+			throw new DegradedConnectionException("JMX call " + name + " rejected, the Camel application is not responding");
+		}
+		T result;
+		try {
+			result = callWithDeadline(name, call);
+		} catch (InterruptedIOException e) {
+			abortTrial();
+			throw e;
+		} catch (IOException e) {
+			onFailure(e);
+			throw e;
+		} catch (Exception e) {
+			// The call has reached the debugged application
+			onSuccess();
+			throw e;
+		}
+		onSuccess();
+		return result;
+	}
+
+	private <T> T callWithDeadline(String name, Callable<T> call) throws Exception {
+		Future<T> future = CALL_EXECUTOR.submit(call);
+		try {
+			return future.get(callTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause() instanceof InvocationTargetException invocationError ? invocationError.getCause() : e.getCause();
+			if (cause instanceof Exception exception) {
+				throw exception;
+			}
+			throw (Error) cause;
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			throw new DegradedConnectionException("JMX call " + name + " timed out after " + callTimeoutMillis + " ms");
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for JMX call " + name);
+		}
+	}
+
+	private Object cachedResultOrThrow(String cacheKey, DegradedConnectionException error) throws DegradedConnectionException {
+		if (cacheKey != null && lastResults.containsKey(cacheKey)) {
+			LOGGER.debug("Using the last result of {}: {}", cacheKey, error.getMessage());
+			return lastResults.get(cacheKey);
+		}
+		throw error;
+	}
+
+	private static boolean isReadOnly(Method method, Object[] args) {
+		if (READ_ONLY_METHODS.contains(method.getName())) {
+			return true;
+		}
+		if ("invoke".equals(method.getName()) && args != null && args.length > 1 && args[1] instanceof String operation) {
+			// Not the operations polling the suspended exchanges, the check loop must not act on stale data
+			return operation.startsWith("get") || operation.startsWith("is");
+		}
+		return false;
+	}
+
+	private synchronized boolean allowCall() {
+		if (state == CircuitState.CLOSED) {
+			return true;
+		}
+		if (state == CircuitState.OPEN && System.nanoTime() - openedAtNanos >= TimeUnit.MILLISECONDS.toNanos(openDurationMillis)) {
+			// Single trial call
+			state = CircuitState.HALF_OPEN;
+			return true;
+		}
+		return false;
+	}
+
+	private synchronized void abortTrial() {
+		if (state == CircuitState.HALF_OPEN) {
+			state = CircuitState.OPEN;
+		}
+	}
+
+	private void onSuccess() {
+		boolean closed;
+		synchronized (this) {
+			closed = state != CircuitState.CLOSED;
+			state = CircuitState.CLOSED;
+			consecutiveFailures = 0;
+		}
+		if (closed) {
+			LOGGER.info("JMX calls are succeeding again, circuit closed");
+			listener.circuitClosed();
+		}
+	}
+
+	private void onFailure(IOException error) {
+		boolean opened = false;
+		synchronized (this) {
+			consecutiveFailures++;
+			if (state == CircuitState.HALF_OPEN) {
+				state = CircuitState.OPEN;
+				openedAtNanos = System.nanoTime();
+			} else if (state == CircuitState.CLOSED && consecutiveFailures >= failureThreshold) {
+				state = CircuitState.OPEN;
+				openedAtNanos = System.nanoTime();
+				opened = true;
+			}
+		}
+		if (opened) {
+			LOGGER.warn("{} consecutive JMX calls failed, circuit opened", failureThreshold, error);
+			listener.circuitOpened(error);
+		}
+	}
+
+	synchronized CircuitState getState() {
+		return state;
+	}
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.camel.api.management.mbean.ManagedBacklogDebuggerMBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.cameltooling.dap.internal.jfr.MessageDumpEvent;
+import com.github.cameltooling.dap.internal.model.CamelExpression;
+
+/**
+ * Polls the backlog debugger with one JMX call per information.
+ */
+public class JmxBacklogDebuggerPoller implements BacklogDebuggerPoller {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(JmxBacklogDebuggerPoller.class);
+
+	private final ManagedBacklogDebuggerMBean backlogDebugger;
+
+	public JmxBacklogDebuggerPoller(ManagedBacklogDebuggerMBean backlogDebugger) {
+		this.backlogDebugger = backlogDebugger;
+	}
+
+	@Override
+	public SuspendedBreakpoints poll(boolean withExchangeIds) {
+		Set<String> nodeIds = backlogDebugger.suspendedBreakpointNodeIds();
+		return new SuspendedBreakpoints(nodeIds, withExchangeIds ? retrieveSuspendedExchangeIds() : null);
+	}
+
+	private Set<String> retrieveSuspendedExchangeIds() {
+		try {
+			return backlogDebugger.suspendedBreakpointExchangeIds();
+		} catch (Exception e) {
+			// Not available with older Camel versions
+			LOGGER.debug("Cannot retrieve the ids of the suspended exchanges: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public Map<String, String> dumpTracedMessages(Collection<String> nodeIds) {
+		MessageDumpEvent dumpEvent = new MessageDumpEvent();
+		dumpEvent.begin();
+		Map<String, String> dumps = new HashMap<>();
+		for (String nodeId : nodeIds) {
+			// Keep using deprecated method to have it still working with 4.1-
+			dumps.put(nodeId, backlogDebugger.dumpTracedMessagesAsXml(nodeId, true));
+		}
+		dumpEvent.complete(dumps.keySet(), dumps.values());
+		return dumps;
+	}
+
+	@Override
+	public Map<CamelExpression, String> evaluate(String nodeId, List<CamelExpression> expressions) {
+		Map<CamelExpression, String> results = new HashMap<>();
+		for (CamelExpression expression : expressions) {
+			try {
+				results.put(expression, String.valueOf(backlogDebugger.evaluateExpressionAtBreakpoint(nodeId, expression.language(), expression.expression(), String.class.getName())));
+			} catch (Exception e) {
+				LOGGER.debug("Cannot evaluate {}: {}", expression.expression(), e.getMessage());
+			}
+		}
+		return results;
+	}
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.Attribute;
+import javax.management.MBeanServerConnection;
+
+import com.github.cameltooling.dap.internal.metrics.OperationMetrics;
+
+/**
+ * Records the count, the latency and the response size of the calls to the debugged application, by MBean operation or
+ * attribute, for instance {@code suspendedBreakpointNodeIds}, {@code dumpTracedMessagesAsXml} or {@code queryNames}.
+ * <p>
+ * The instrumented connections are the raw ones, so the latencies are the ones of the network and of the debugged
+ * application, without the time spent waiting in the debug adapter. The metrics are kept across reconnections.
+ */
+public class JmxCallMetrics {
+
+	private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+	/**
+	 * @param connection the connection to instrument
+	 * @return a connection recording the metrics of its calls
+	 */
+	public MBeanServerConnection instrument(MBeanServerConnection connection) {
+		InvocationHandler handler = (proxy, method, args) -> {
+			if (method.getDeclaringClass() == Object.class) {
+				return method.invoke(connection, args);
+			}
+			OperationMetrics metrics = operation(operationName(method, args));
+			long startNanos = System.nanoTime();
+			try {
+				Object result = method.invoke(connection, args);
+				metrics.record(startNanos, OperationMetrics.responseSize(result), false);
+				return result;
+			} catch (InvocationTargetException e) {
+				metrics.record(startNanos, 0, true);
+				throw e.getCause();
+			}
+		};
+		return (MBeanServerConnection) Proxy.newProxyInstance(MBeanServerConnection.class.getClassLoader(),
+				new Class<?>[] { MBeanServerConnection.class }, handler);
+	}
+
+	/**
+	 * @return the name of the MBean operation or attribute for the calls targeting one, the name of the method otherwise
+	 */
+	static String operationName(Method method, Object[] args) {
+		String methodName = method.getName();
+		if ("invoke".equals(methodName) && args != null && args.length > 1 && args[1] instanceof String operation) {
+			return operation;
+		} else if ("getAttribute".equals(methodName) && args != null && args.length > 1 && args[1] instanceof String attribute) {
+			return attribute;
+		} else if ("setAttribute".equals(methodName) && args != null && args.length > 1 && args[1] instanceof Attribute attribute) {
+			return "set" + attribute.getName();
+		}
+		return methodName;
+	}
+
+	/**
+	 * @param name the name of the operation, for calls which are not going through an instrumented connection
+	 * @return the metrics of the operation
+	 */
+	public OperationMetrics operation(String name) {
+		return operations.computeIfAbsent(name, key -> new OperationMetrics());
+	}
+
+	/**
+	 * @return the metrics of each operation called at least once, by operation name
+	 */
+	public SortedMap<String, OperationMetrics.Snapshot> snapshot() {
+		SortedMap<String, OperationMetrics.Snapshot> snapshots = new TreeMap<>();
+		operations.forEach((name, metrics) -> snapshots.put(name, metrics.snapshot()));
+		return snapshots;
+	}
+
+}
@@ -0,0 +1,272 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.management.ObjectName;
+
+import org.apache.camel.api.management.mbean.ManagedBacklogDebuggerMBean;
+import org.jolokia.client.J4pClient;
+import org.jolokia.client.exception.J4pBulkRemoteException;
+import org.jolokia.client.exception.J4pException;
+import org.jolokia.client.exception.UncheckedJmxAdapterException;
+import org.jolokia.client.request.J4pExecRequest;
+import org.jolokia.client.request.J4pQueryParameter;
+import org.jolokia.client.request.J4pReadRequest;
+import org.jolokia.client.request.J4pRequest;
+import org.jolokia.client.request.J4pResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.cameltooling.dap.internal.jfr.MessageDumpEvent;
+import com.github.cameltooling.dap.internal.metrics.OperationMetrics;
+import com.github.cameltooling.dap.internal.model.CamelExpression;
+
+/**
+ * Polls the backlog debugger with Jolokia bulk requests, each of them being a single HTTP round trip.
+ * <p>
+ * The suspended node ids, the suspended exchange ids and all the attributes of the debugger are retrieved together.
+ * The messages of all the newly suspended exchanges are then dumped together, as are the watch expressions evaluated
+ * on a newly suspended exchange. The attributes are kept so that the settings of the debugger displayed on each stop
+ * are not retrieved again one by one.
+ */
+public class JolokiaBacklogDebuggerPoller implements BacklogDebuggerPoller {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(JolokiaBacklogDebuggerPoller.class);
+	private static final String OPERATION_DUMP_TRACED_MESSAGES = "dumpTracedMessagesAsXml(java.lang.String,boolean)";
+	private static final Map<J4pQueryParameter, String> BULK_PARAMETERS = Map.of(J4pQueryParameter.IGNORE_ERRORS, "true");
+
+	private static final String OPERATION_BULK_POLL = "bulk poll";
+	private static final String OPERATION_BULK_DUMP = "bulk dumpTracedMessagesAsXml";
+	private static final String OPERATION_EVALUATE = "evaluateExpressionAtBreakpoint(java.lang.String,java.lang.String,java.lang.String,java.lang.String)";
+	private static final String OPERATION_BULK_EVALUATE = "bulk evaluateExpressionAtBreakpoint";
+
+	private static final List<String> READ_ONLY_OPERATION_PREFIXES = List.of("dump", "evaluate", "suspended", "breakpoints",
+			"messageHistory", "validate", "equals", "hashCode", "toString");
+
+	private final J4pClient jolokiaClient;
+	private final ObjectName backlogDebuggerName;
+	private final JmxCallMetrics callMetrics;
+	private final GuardedConnection guardedConnection;
+	private volatile Map<String, Object> attributes = Map.of();
+
+	/**
+	 * @param callMetrics records the bulk requests, which are not going through the JMX connection
+	 * @param guardedConnection gives the bulk requests the deadline and the circuit of the JMX calls
+	 */
+	public JolokiaBacklogDebuggerPoller(J4pClient jolokiaClient, ObjectName backlogDebuggerName, JmxCallMetrics callMetrics,
+			GuardedConnection guardedConnection) {
+		this.jolokiaClient = jolokiaClient;
+		this.backlogDebuggerName = backlogDebuggerName;
+		this.callMetrics = callMetrics;
+		this.guardedConnection = guardedConnection;
+	}
+
+	@Override
+	public SuspendedBreakpoints poll(boolean withExchangeIds) {
+		List<J4pRequest> requests = new ArrayList<>();
+		requests.add(new J4pExecRequest(backlogDebuggerName, "suspendedBreakpointNodeIds"));
+		requests.add(new J4pReadRequest(backlogDebuggerName));
+		if (withExchangeIds) {
+			requests.add(new J4pExecRequest(backlogDebuggerName, "suspendedBreakpointExchangeIds"));
+		}
+		List<Object> results = executeBulk(OPERATION_BULK_POLL, requests);
+		Set<String> nodeIds = toStringSet(valueOf(results.get(0)));
+		if (nodeIds == null) {
+			throw new UncheckedJmxAdapterException(new J4pException("Cannot retrieve the suspended breakpoints: " + results.get(0)));
+		}
+		if (valueOf(results.get(1)) instanceof Map<?, ?> attributeValues) {
+			Map<String, Object> newAttributes = new HashMap<>();
+			attributeValues.forEach((name, value) -> newAttributes.put(String.valueOf(name), value));
+			attributes = newAttributes;
+		}
+		// Null when not available with older Camel versions
+		Set<String> exchangeIds = withExchangeIds ? toStringSet(valueOf(results.get(2))) : null;
+		return new SuspendedBreakpoints(nodeIds, exchangeIds);
+	}
+
+	@Override
+	public Map<String, String> dumpTracedMessages(Collection<String> nodeIds) {
+		Map<String, String> dumps = new HashMap<>();
+		if (nodeIds.isEmpty()) {
+			return dumps;
+		}
+		MessageDumpEvent dumpEvent = new MessageDumpEvent();
+		dumpEvent.begin();
+		List<String> orderedNodeIds = new ArrayList<>(nodeIds);
+		List<J4pRequest> requests = new ArrayList<>();
+		for (String nodeId : orderedNodeIds) {
+			requests.add(new J4pExecRequest(backlogDebuggerName, OPERATION_DUMP_TRACED_MESSAGES, nodeId, true));
+		}
+		List<Object> results = executeBulk(OPERATION_BULK_DUMP, requests);
+		for (int i = 0; i < orderedNodeIds.size(); i++) {
+			Object value = valueOf(results.get(i));
+			dumps.put(orderedNodeIds.get(i), value != null ? value.toString() : null);
+		}
+		dumpEvent.complete(dumps.keySet(), dumps.values());
+		return dumps;
+	}
+
+	@Override
+	public Map<CamelExpression, String> evaluate(String nodeId, List<CamelExpression> expressions) {
+		Map<CamelExpression, String> results = new HashMap<>();
+		if (expressions.isEmpty()) {
+			return results;
+		}
+		List<J4pRequest> requests = new ArrayList<>();
+		for (CamelExpression expression : expressions) {
+			requests.add(new J4pExecRequest(backlogDebuggerName, OPERATION_EVALUATE, nodeId, expression.language(), expression.expression(), String.class.getName()));
+		}
+		List<Object> responses = executeBulk(OPERATION_BULK_EVALUATE, requests);
+		for (int i = 0; i < expressions.size(); i++) {
+			if (responses.get(i) instanceof J4pResponse<?> response) {
+				// Typed as Object, as the generic getValue() would otherwise select String.valueOf(char[])
+				Object value = response.getValue();
+				results.put(expressions.get(i), String.valueOf(value));
+			} else {
+				LOGGER.debug("Cannot evaluate {}: {}", expressions.get(i).expression(), responses.get(i));
+			}
+		}
+		return results;
+	}
+
+	@Override
+	public boolean isBatching() {
+		return true;
+	}
+
+	/**
+	 * @return the response or the exception of each request, in the order of the requests
+	 */
+	private List<Object> executeBulk(String operationName, List<J4pRequest> requests) {
+		OperationMetrics metrics = callMetrics.operation(operationName);
+		long startNanos = System.nanoTime();
+		try {
+			List<Object> results = guardedConnection.call(operationName, () -> sendBulk(operationName, requests));
+			metrics.record(startNanos, results.size(), false);
+			return results;
+		} catch (Exception e) {
+			metrics.record(startNanos, 0, true);
+			throw new UncheckedJmxAdapterException(e);
+		}
+	}
+
+	private List<Object> sendBulk(String operationName, List<J4pRequest> requests) throws IOException, J4pException {
+		try {
+			return new ArrayList<>(jolokiaClient.execute(requests, BULK_PARAMETERS));
+		} catch (J4pBulkRemoteException e) {
+			// Some requests have failed, for instance an operation missing in older Camel versions
+			return e.getResults();
+		} catch (J4pException e) {
+			if (e.getCause() instanceof SocketTimeoutException) {
+				// As when the deadline of the call is reached first
+				throw new DegradedConnectionException("JMX call " + operationName + " timed out");
+			} else if (e.getCause() instanceof IOException) {
+				// A failure of the connection for the circuit
+				throw new IOException(e.getMessage(), e);
+			}
+			throw e;
+		}
+	}
+
+	private static Object valueOf(Object result) {
+		if (result instanceof J4pResponse<?> response) {
+			return response.getValue();
+		}
+		LOGGER.debug("Jolokia request failed: {}", result);
+		return null;
+	}
+
+	private static Set<String> toStringSet(Object value) {
+		if (value instanceof Collection<?> values) {
+			return values.stream().map(String::valueOf).collect(Collectors.toSet());
+		}
+		return null;
+	}
+
+	/**
+	 * @param backlogDebugger the proxy of the backlog debugger
+	 * @return a proxy answering the getters of the attributes with the values retrieved by the last poll. The other
+	 *         calls are delegated, the ones which may change the attributes forgetting these values.
+	 */
+	public ManagedBacklogDebuggerMBean withPolledAttributes(ManagedBacklogDebuggerMBean backlogDebugger) {
+		return (ManagedBacklogDebuggerMBean) Proxy.newProxyInstance(ManagedBacklogDebuggerMBean.class.getClassLoader(),
+				new Class<?>[] { ManagedBacklogDebuggerMBean.class },
+				(proxy, method, args) -> {
+					String attributeName = args == null ? attributeName(method) : null;
+					Object polledValue = attributeName != null ? polledAttribute(attributeName, method.getReturnType()) : null;
+					if (polledValue != null) {
+						return polledValue;
+					}
+					try {
+						return method.invoke(backlogDebugger, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					} finally {
+						if (attributeName == null && !isReadOnly(method)) {
+							attributes = Map.of();
+						}
+					}
+				});
+	}
+
+	private static String attributeName(Method method) {
+		String name = method.getName();
+		if (name.startsWith("get") && name.length() > 3) {
+			return name.substring(3);
+		} else if (name.startsWith("is") && name.length() > 2) {
+			return name.substring(2);
+		}
+		return null;
+	}
+
+	/**
+	 * @return whether the operation only reads the state of the debugger, such as dumping the suspended messages or
+	 *         evaluating an expression
+	 */
+	private static boolean isReadOnly(Method method) {
+		String name = method.getName();
+		return READ_ONLY_OPERATION_PREFIXES.stream().anyMatch(name::startsWith);
+	}
+
+	private Object polledAttribute(String attributeName, Class<?> type) {
+		Object value = attributes.get(attributeName);
+		if (value instanceof Number number && (type == int.class || type == Integer.class)) {
+			return number.intValue();
+		} else if (value instanceof Number number && (type == long.class || type == Long.class)) {
+			return number.longValue();
+		} else if (value instanceof Boolean && (type == boolean.class || type == Boolean.class)) {
+			return value;
+		} else if (value instanceof String && type == String.class) {
+			return value;
+		}
+		return null;
+	}
+
+}
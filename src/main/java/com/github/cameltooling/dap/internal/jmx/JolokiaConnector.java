@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.MBeanServerConnection;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+import javax.management.remote.JMXConnectionNotification;
+import javax.management.remote.JMXConnector;
+import javax.security.auth.Subject;
+
+import org.jolokia.client.J4pClient;
+import org.jolokia.client.jmxadapter.RemoteJmxAdapter;
+
+/**
+ * Connects to the Jolokia agent of the debugged application over HTTP, as an alternative to RMI which is often not
+ * exposed by the Kubernetes pods or is very slow through a port-forward.
+ * <p>
+ * The HTTP connections are pooled so that they are kept alive between the requests. The Jolokia client is exposed so
+ * that several JMX calls can be sent in a single bulk request.
+ */
+public class JolokiaConnector implements JMXConnector {
+
+	private static final AtomicLong NOTIFICATION_SEQUENCE = new AtomicLong();
+
+	private final String url;
+	private final int timeoutMillis;
+	private final List<ListenerRegistration> listeners = new CopyOnWriteArrayList<>();
+	private volatile J4pClient jolokiaClient;
+	private volatile RemoteJmxAdapter mbeanServerConnection;
+
+	/**
+	 * @param url the url of the Jolokia agent, for instance http://localhost:8778/jolokia/
+	 * @param timeoutMillis the timeout of the connection and of the responses
+	 */
+	public JolokiaConnector(String url, int timeoutMillis) {
+		this.url = url;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * @param url the url of the Jolokia agent
+	 * @param timeoutMillis the timeout of the connection and of the responses
+	 * @return a connected connector
+	 * @throws IOException if the Jolokia agent cannot be reached
+	 */
+	public static JolokiaConnector connect(String url, int timeoutMillis) throws IOException {
+		JolokiaConnector connector = new JolokiaConnector(url, timeoutMillis);
+		connector.connect();
+		return connector;
+	}
+
+	@Override
+	public void connect() throws IOException {
+		connect(Map.of());
+	}
+
+	@Override
+	public synchronized void connect(Map<String, ?> env) throws IOException {
+		if (mbeanServerConnection == null) {
+			J4pClient client = J4pClient.url(url)
+					.pooledConnections()
+					.connectionTimeout(timeoutMillis)
+					.socketTimeout(timeoutMillis)
+					.build();
+			try {
+				// The adapter requests the version of the agent when created, so an unreachable agent fails the attach
+				mbeanServerConnection = new RemoteJmxAdapter(client);
+			} catch (IOException e) {
+				throw new IOException("Cannot reach the Jolokia agent at " + url, e);
+			}
+			jolokiaClient = client;
+		}
+	}
+
+	public J4pClient getJolokiaClient() {
+		return jolokiaClient;
+	}
+
+	@Override
+	public MBeanServerConnection getMBeanServerConnection() throws IOException {
+		if (mbeanServerConnection == null) {
+			throw new IOException("Not connected to " + url);
+		}
+		return mbeanServerConnection;
+	}
+
+	@Override
+	public MBeanServerConnection getMBeanServerConnection(Subject delegationSubject) throws IOException {
+		return getMBeanServerConnection();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		J4pClient client = jolokiaClient;
+		jolokiaClient = null;
+		mbeanServerConnection = null;
+		if (client != null) {
+			if (client.getHttpClient() instanceof Closeable closeableHttpClient) {
+				closeableHttpClient.close();
+			}
+			JMXConnectionNotification notification = new JMXConnectionNotification(JMXConnectionNotification.CLOSED, this,
+					getConnectionId(), NOTIFICATION_SEQUENCE.incrementAndGet(), "Connection to " + url + " closed", null);
+			for (ListenerRegistration registration : listeners) {
+				registration.listener().handleNotification(notification, registration.handback());
+			}
+		}
+	}
+
+	@Override
+	public void addConnectionNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) {
+		listeners.add(new ListenerRegistration(listener, handback));
+	}
+
+	@Override
+	public void removeConnectionNotificationListener(NotificationListener listener) throws ListenerNotFoundException {
+		if (!listeners.removeIf(registration -> registration.listener() == listener)) {
+			throw new ListenerNotFoundException();
+		}
+	}
+
+	@Override
+	public void removeConnectionNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback)
+			throws ListenerNotFoundException {
+		if (!listeners.removeIf(registration -> registration.listener() == listener && registration.handback() == handback)) {
+			throw new ListenerNotFoundException();
+		}
+	}
+
+	@Override
+	public String getConnectionId() {
+		return "jolokia:" + url;
+	}
+
+	private record ListenerRegistration(NotificationListener listener, Object handback) {}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.JMX;
+import javax.management.MBeanServerConnection;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.apache.camel.api.management.mbean.ManagedRouteMBean;
+import org.apache.camel.api.management.mbean.ManagedSuspendableRouteMBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the proxies of the Camel route MBeans by route id.
+ * <p>
+ * Looking up a route used to query all the route MBeans and their MBeanInfo, which is taking minutes for all the routes
+ * of a large Camel context. The catalog is refreshed with a single query of the MBean names, only the routes which
+ * were not known yet are introspected.
+ */
+public class RouteCatalog {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RouteCatalog.class);
+	private static final String OBJECTNAME_CAMELROUTES = "org.apache.camel:context=*,type=routes,name=*";
+
+	private final MBeanServerConnection connection;
+	private final Map<ObjectName, RouteEntry> routesByObjectName = new ConcurrentHashMap<>();
+	private final Map<String, ManagedRouteMBean> routesById = new ConcurrentHashMap<>();
+
+	public RouteCatalog(MBeanServerConnection connection) {
+		this.connection = connection;
+	}
+
+	/**
+	 * Synchronizes the catalog with the route MBeans currently registered.
+	 *
+	 * @return the ids of the routes currently registered
+	 */
+	public synchronized Set<String> refresh() throws MalformedObjectNameException, IOException {
+		Set<ObjectName> camelRouteMbeanNames = connection.queryNames(new ObjectName(OBJECTNAME_CAMELROUTES), null);
+		Set<ObjectName> registeredNames = camelRouteMbeanNames != null ? camelRouteMbeanNames : Set.of();
+		routesByObjectName.keySet().retainAll(registeredNames);
+		for (ObjectName camelRouteMbeanName : registeredNames) {
+			if (!routesByObjectName.containsKey(camelRouteMbeanName)) {
+				try {
+					routesByObjectName.put(camelRouteMbeanName, introspect(camelRouteMbeanName));
+				} catch (JMException | RuntimeException e) {
+					// The route may have been removed since the query
+					LOGGER.debug("Cannot introspect Camel route {}", camelRouteMbeanName, e);
+				}
+			}
+		}
+		Set<String> camelRouteIds = new HashSet<>();
+		for (RouteEntry routeEntry : routesByObjectName.values()) {
+			camelRouteIds.add(routeEntry.routeId());
+			routesById.put(routeEntry.routeId(), routeEntry.camelRoute());
+		}
+		routesById.keySet().retainAll(camelRouteIds);
+		return camelRouteIds;
+	}
+
+	private RouteEntry introspect(ObjectName camelRouteMbeanName) throws JMException, IOException {
+		String classNameOfMBean = connection.getMBeanInfo(camelRouteMbeanName).getClassName();
+		ManagedRouteMBean camelRoute;
+		if (classNameOfMBean.contains("ManagedSuspendableRoute")) {
+			camelRoute = JMX.newMBeanProxy(connection, camelRouteMbeanName, ManagedSuspendableRouteMBean.class);
+		} else {
+			camelRoute = JMX.newMBeanProxy(connection, camelRouteMbeanName, ManagedRouteMBean.class);
+		}
+		return new RouteEntry(camelRoute.getRouteId(), camelRoute);
+	}
+
+	/**
+	 * @param routeId the id of the route
+	 * @return the proxy of the route MBean, the catalog is refreshed when the route is not known yet. Null if there is
+	 *         no such route.
+	 */
+	public ManagedRouteMBean get(String routeId) {
+		ManagedRouteMBean camelRoute = routesById.get(routeId);
+		if (camelRoute == null) {
+			try {
+				refresh();
+			} catch (MalformedObjectNameException | IOException e) {
+				LOGGER.error("Cannot retrieve Camel routes", e);
+			}
+			camelRoute = routesById.get(routeId);
+		}
+		return camelRoute;
+	}
+
+	public int size() {
+		return routesById.size();
+	}
+
+	/**
+	 * The route id is kept so that refreshing the catalog does not call each known route.
+	 */
+	private record RouteEntry(String routeId, ManagedRouteMBean camelRoute) {}
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low overhead and lock free histogram of durations. Values are recorded with a microsecond resolution in buckets
+ * growing exponentially, with 8 sub-buckets per power of two. Consequently, the reported percentiles are
+ * overestimated by at most 12.5%.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalMicros = new LongAdder();
+	private final AtomicLong maxMicros = new AtomicLong();
+
+	public void record(long duration, TimeUnit unit) {
+		long micros = Math.max(0, unit.toMicros(duration));
+		counts.incrementAndGet(bucketIndex(micros));
+		count.increment();
+		totalMicros.add(micros);
+		maxMicros.accumulateAndGet(micros, Math::max);
+	}
+
+	/**
+	 * @param startNanos the value of {@link System#nanoTime()} at the beginning of the measured operation
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	static int bucketIndex(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+		int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(micros)) - SUB_BUCKET_BITS;
+		int subBucket = (int) (micros >>> shift) & (SUB_BUCKETS - 1);
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long bucketUpperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		int subBucket = index % SUB_BUCKETS;
+		return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the duration in milliseconds under which the given percentage of the recorded values are
+	 */
+	public double getPercentileMillis(double percentile) {
+		long[] bucketCounts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			bucketCounts[i] = counts.get(i);
+			total += bucketCounts[i];
+		}
+		return percentileMillis(bucketCounts, total, percentile);
+	}
+
+	private double percentileMillis(long[] bucketCounts, long total, double percentile) {
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long accumulated = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			accumulated += bucketCounts[i];
+			if (accumulated >= rank) {
+				return Math.min(bucketUpperBound(i), maxMicros.get()) / 1000d;
+			}
+		}
+		return maxMicros.get() / 1000d;
+	}
+
+	/**
+	 * @return a consistent view of the recorded values
+	 */
+	public Snapshot snapshot() {
+		long[] bucketCounts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			bucketCounts[i] = counts.get(i);
+			total += bucketCounts[i];
+		}
+		double mean = total == 0 ? 0 : totalMicros.sum() / 1000d / total;
+		return new Snapshot(total, mean,
+				percentileMillis(bucketCounts, total, 50),
+				percentileMillis(bucketCounts, total, 90),
+				percentileMillis(bucketCounts, total, 99),
+				maxMicros.get() / 1000d);
+	}
+
+	/**
+	 * @return the recorded values, the histogram is cleared to start a new interval
+	 */
+	public Snapshot snapshotAndReset() {
+		Snapshot snapshot = snapshot();
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		count.reset();
+		totalMicros.reset();
+		maxMicros.set(0);
+		return snapshot;
+	}
+
+	/**
+	 * Durations are expressed in milliseconds.
+	 */
+	public record Snapshot(long count, double mean, double p50, double p90, double p99, double max) {
+
+		@Override
+		public String toString() {
+			return String.format("count=%d, mean=%.2fms, p50=%.2fms, p90=%.2fms, p99=%.2fms, max=%.2fms", count, mean, p50, p90, p99, max);
+		}
+	}
+
+}
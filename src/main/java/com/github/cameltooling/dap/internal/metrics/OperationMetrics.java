@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.metrics;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count, latency, failures and response sizes of the calls of a single remote operation.
+ */
+public class OperationMetrics {
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder totalResponseSize = new LongAdder();
+	private final AtomicLong maxResponseSize = new AtomicLong();
+
+	/**
+	 * @param startNanos the value of {@link System#nanoTime()} at the beginning of the call
+	 * @param responseSize the size of the response, see {@link #responseSize(Object)}
+	 * @param failed whether the call has thrown an exception
+	 */
+	public void record(long startNanos, long responseSize, boolean failed) {
+		latency.recordSince(startNanos);
+		if (failed) {
+			failures.increment();
+		}
+		totalResponseSize.add(responseSize);
+		maxResponseSize.accumulateAndGet(responseSize, Math::max);
+	}
+
+	/**
+	 * @param response the value returned by a call
+	 * @return the number of characters of a String, the number of elements of a collection, a map or an array, 0 for
+	 *         null and 1 for any other value
+	 */
+	public static long responseSize(Object response) {
+		if (response == null) {
+			return 0;
+		} else if (response instanceof CharSequence text) {
+			return text.length();
+		} else if (response instanceof Collection<?> collection) {
+			return collection.size();
+		} else if (response instanceof Map<?, ?> map) {
+			return map.size();
+		} else if (response.getClass().isArray()) {
+			return Array.getLength(response);
+		}
+		return 1;
+	}
+
+	public Snapshot snapshot() {
+		LatencyHistogram.Snapshot latencySnapshot = latency.snapshot();
+		double meanResponseSize = latencySnapshot.count() == 0 ? 0 : (double) totalResponseSize.sum() / latencySnapshot.count();
+		return new Snapshot(latencySnapshot, failures.sum(), meanResponseSize, maxResponseSize.get());
+	}
+
+	public record Snapshot(LatencyHistogram.Snapshot latency, long failures, double meanResponseSize, long maxResponseSize) {
+
+		@Override
+		public String toString() {
+			return String.format("%s, failures=%d, mean size=%.1f, max size=%d", latency, failures, meanResponseSize, maxResponseSize);
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latencies of the requests received from the client, by request. A request is measured from its reception to the
+ * completion of its response, so that the time spent waiting for an executor is included with its execution.
+ */
+public class RequestMetrics {
+
+	private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+	/**
+	 * @param request the name of the request
+	 * @param response the future of the response, the request being received when this method is called
+	 * @return the provided future
+	 * @param <T> the type of the response
+	 */
+	public <T> CompletableFuture<T> time(String request, CompletableFuture<T> response) {
+		long startNanos = System.nanoTime();
+		LatencyHistogram latency = latencies.computeIfAbsent(request, key -> new LatencyHistogram());
+		response.whenComplete((result, error) -> latency.recordSince(startNanos));
+		return response;
+	}
+
+	/**
+	 * @return the latencies of each request received since the previous call, by request name
+	 */
+	public SortedMap<String, LatencyHistogram.Snapshot> snapshotAndReset() {
+		SortedMap<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+		latencies.forEach((request, latency) -> {
+			if (latency.getCount() > 0) {
+				snapshots.put(request, latency.snapshotAndReset());
+			}
+		});
+		return snapshots;
+	}
+
+}
@@ -24,6 +24,10 @@ import org.eclipse.lsp4j.debug.Source;
 public class CamelBreakpoint extends Breakpoint {
 
 	private String nodeId;
+	/**
+	 * The condition in the simple language, kept to set the breakpoint again after a reconnection.
+	 */
+	private String condition;
 
 	public CamelBreakpoint(Source source, int line) {
 		setSource(source);
@@ -38,18 +42,27 @@ public class CamelBreakpoint extends Breakpoint {
 		this.nodeId = nodeId;
 	}
 	
+	public String getCondition() {
+		return condition;
+	}
+
+	public void setCondition(String condition) {
+		this.condition = condition;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if(!super.equals(obj)) {
 			return false;
 		}
 		CamelBreakpoint that = (CamelBreakpoint) obj;
-		return Objects.equals(this.nodeId, that.nodeId);
+		return Objects.equals(this.nodeId, that.nodeId)
+				&& Objects.equals(this.condition, that.condition);
 	}
 	
 	@Override
 	public int hashCode() {
-		return Objects.hash(super.hashCode(), nodeId);
+		return Objects.hash(super.hashCode(), nodeId, condition);
 	}
 
 }
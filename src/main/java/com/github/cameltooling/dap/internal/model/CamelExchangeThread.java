@@ -18,6 +18,7 @@ package com.github.cameltooling.dap.internal.model;
 
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.camel.api.management.mbean.ManagedBacklogDebuggerMBean;
 import org.eclipse.lsp4j.debug.Source;
@@ -29,13 +30,25 @@ import com.github.cameltooling.dap.internal.types.EventMessage;
 
 public class CamelExchangeThread extends Thread {
 
+	/**
+	 * The lifecycle of an exchange under debug. A suspended exchange is either stepping, until it has left its current
+	 * node, or running. A running exchange becomes suspended again when it reaches another breakpoint.
+	 */
+	public enum State {
+		SUSPENDED,
+		STEPPING,
+		RUNNING
+	}
+
 	private final String breakpointId;
 	private final CamelStackFrame stackFrame;
 	private final EventMessage eventMessage;
+	private final AtomicReference<State> state = new AtomicReference<>(State.SUSPENDED);
+	private volatile long stateChangeNanos = System.nanoTime();
 
 	public CamelExchangeThread(int threadId, String breakpointId, EventMessage eventMessage, CamelBreakpoint camelBreakpoint) {
 		setId(threadId);
-		setName(eventMessage.getExchangeId());
+		setName(eventMessage != null ? eventMessage.getExchangeId() : "Suspended at " + breakpointId);
 		this.breakpointId = breakpointId;
 		this.eventMessage = eventMessage;
 		// TODO: provide a better hashcode for stackframe containing the camelcontext
@@ -52,6 +65,13 @@ public class CamelExchangeThread extends Thread {
 		this.stackFrame = new CamelStackFrame(frameId, breakpointId, source, line);
 	}
 
+	/**
+	 * @return a thread for an exchange suspended on the given breakpoint, whose message is retrieved later
+	 */
+	public static CamelExchangeThread placeholder(int threadId, String breakpointId, CamelBreakpoint camelBreakpoint) {
+		return new CamelExchangeThread(threadId, breakpointId, null, camelBreakpoint);
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (!super.equals(obj)) {
@@ -80,6 +100,81 @@ public class CamelExchangeThread extends Thread {
 		return eventMessage != null ? eventMessage.getExchangeId() : null;
 	}
 
+	/**
+	 * @return the message of the exchange when it has been suspended, null for a placeholder
+	 */
+	public EventMessage getEventMessage() {
+		return eventMessage;
+	}
+
+	/**
+	 * @return whether the message of the suspended exchange has not been retrieved yet. The stack frame and the scopes
+	 *         of a placeholder are available as they depend only on the breakpoint.
+	 */
+	public boolean isPlaceholder() {
+		return eventMessage == null;
+	}
+
+	public State getState() {
+		return state.get();
+	}
+
+	/**
+	 * @return whether the thread was suspended and is now stepping. It is false if it is already stepping or running,
+	 *         in which case the step must not be requested again.
+	 */
+	public boolean startStepping() {
+		return changeState(State.SUSPENDED, State.STEPPING);
+	}
+
+	/**
+	 * @return whether the thread has left the node where it was stepping from
+	 */
+	public boolean stepCompleted() {
+		return changeState(State.STEPPING, State.RUNNING);
+	}
+
+	/**
+	 * @return whether the thread was suspended and is now running. It is false if it is already stepping or running,
+	 *         in which case the resume must not be requested again.
+	 */
+	public boolean startRunning() {
+		return changeState(State.SUSPENDED, State.RUNNING);
+	}
+
+	/**
+	 * Called when the exchange has reached a new breakpoint. It can happen before the end of the step request.
+	 *
+	 * @return whether the thread was not already suspended
+	 */
+	public boolean suspend() {
+		boolean changed = state.getAndSet(State.SUSPENDED) != State.SUSPENDED;
+		if (changed) {
+			stateChangeNanos = System.nanoTime();
+		}
+		return changed;
+	}
+
+	private boolean changeState(State expected, State newState) {
+		boolean changed = state.compareAndSet(expected, newState);
+		if (changed) {
+			stateChangeNanos = System.nanoTime();
+		}
+		return changed;
+	}
+
+	public boolean isStepping() {
+		return state.get() == State.STEPPING;
+	}
+
+	/**
+	 * @param nanos a duration in nanoseconds
+	 * @return whether the exchange has been running, without being suspended again, for longer than the duration
+	 */
+	public boolean isRunningFor(long nanos) {
+		return state.get() == State.RUNNING && System.nanoTime() - stateChangeNanos > nanos;
+	}
+
 	public Set<Variable> createVariables(int variablesReference, ManagedBacklogDebuggerMBean debugger) {
 		return stackFrame.createVariables(variablesReference, debugger);
 	}
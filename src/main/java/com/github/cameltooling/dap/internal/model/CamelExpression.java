@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.model;
+
+import java.util.Set;
+
+/**
+ * An expression evaluated on a suspended exchange. It is written in the Simple language by default, another language
+ * can be selected with its name as prefix, for instance <code>jsonpath:$.name</code>.
+ */
+public record CamelExpression(String language, String expression) {
+
+	public static final String DEFAULT_LANGUAGE = "simple";
+
+	/**
+	 * Only the names of the Camel languages are recognized as prefix, so that a Simple expression containing a colon
+	 * is not mistaken for a prefixed one.
+	 */
+	private static final Set<String> LANGUAGES = Set.of(
+			"bean", "constant", "csimple", "datasonnet", "exchangeProperty", "groovy", "header", "hl7terser", "java",
+			"joor", "jq", "js", "jsonpath", "mvel", "ognl", "python", "ref", "simple", "spel", "tokenize", "variable",
+			"wasm", "xpath", "xquery", "xtokenize");
+
+	/**
+	 * @param text the expression as typed by the user
+	 * @return the expression with its language
+	 */
+	public static CamelExpression parse(String text) {
+		int colon = text.indexOf(':');
+		if (colon > 0) {
+			String prefix = text.substring(0, colon).trim();
+			if (LANGUAGES.contains(prefix)) {
+				return new CamelExpression(prefix, text.substring(colon + 1).trim());
+			}
+		}
+		return new CamelExpression(DEFAULT_LANGUAGE, text.trim());
+	}
+
+}
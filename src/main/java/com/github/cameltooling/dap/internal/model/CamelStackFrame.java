@@ -18,7 +18,17 @@ package com.github.cameltooling.dap.internal.model;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import org.apache.camel.api.management.mbean.ManagedBacklogDebuggerMBean;
 import org.eclipse.lsp4j.debug.Source;
@@ -34,6 +44,12 @@ import com.github.cameltooling.dap.internal.model.scopes.CamelProcessorScope;
 public class CamelStackFrame extends StackFrame {
 
 	private volatile Set<CamelScope> scopes = Collections.unmodifiableSet(new HashSet<>());
+	private final Map<Integer, CompletableFuture<Set<Variable>>> prefetchedVariables = new ConcurrentHashMap<>();
+	/**
+	 * The results of the expressions evaluated during the current stop. The watch panels of the clients are evaluating
+	 * their expressions again each time they are refreshed, the results are reused instead of new JMX round trips.
+	 */
+	private final Map<CamelExpression, CompletableFuture<String>> evaluations = new ConcurrentHashMap<>();
 
 	public CamelStackFrame(int frameId, String breakpointId, Source source, Integer line) {
 		setId(frameId);
@@ -44,20 +60,181 @@ public class CamelStackFrame extends StackFrame {
 		}
 	}
 	
-	public Set<CamelScope> createScopes() {
-		final Set<CamelScope> allScopes = new HashSet<>();
+	public synchronized Set<CamelScope> createScopes() {
+		if (!scopes.isEmpty()) {
+			// Scopes are keeping the variables previously computed, they must be reused to be able to update them
+			return scopes;
+		}
+		// The first scope is the one expanded automatically by the clients
+		final Set<CamelScope> allScopes = new LinkedHashSet<>();
+		allScopes.add(new CamelMessageScope(this));
 		allScopes.add(new CamelDebuggerScope(this));
 		allScopes.add(new CamelEndpointScope(this));
 		allScopes.add(new CamelProcessorScope(this));
 		allScopes.add(new CamelExchangeScope(this));
-		allScopes.add(new CamelMessageScope(this));
 		this.scopes = Collections.unmodifiableSet(allScopes);
 		return allScopes;
 	}
 
+	/**
+	 * Creates the scopes and starts computing the top-level variables of the first one with the provided executor. It
+	 * allows to answer the scopes and variables requests which are sent by the client right after a stopped event
+	 * without waiting for new JMX round trips. Only the first scope is prefetched, as the clients expand it
+	 * automatically while the other ones are computed only if the user opens them. A prefetched result is served only
+	 * once, following requests are computed again.
+	 *
+	 * @param debugger the backlog debugger used to retrieve the values
+	 * @param executor the executor on which the variables are computed
+	 */
+	public void prefetch(ManagedBacklogDebuggerMBean debugger, Executor executor) {
+		// A new stop, the exchange may have been updated since the variables have been computed and the expressions evaluated
+		cancelPrefetch();
+		CamelScope firstScope = createScopes().iterator().next();
+		int variablesReference = firstScope.getVariablesReference();
+		prefetchedVariables.put(variablesReference,
+				CompletableFuture.supplyAsync(() -> new HashSet<Variable>(firstScope.createVariables(variablesReference, debugger)), executor));
+	}
+
+	/**
+	 * Drops the prefetched variables which have not been requested yet and the results of the evaluated expressions,
+	 * for instance because a value has been updated.
+	 */
+	public void discardPrefetchedVariables() {
+		prefetchedVariables.clear();
+		evaluations.clear();
+	}
+
+	/**
+	 * Cancels the computations started in background which have not been requested yet, for instance when the
+	 * exchange is resumed. The ones which have not started yet are skipped.
+	 */
+	public void cancelPrefetch() {
+		for (Integer variablesReference : prefetchedVariables.keySet()) {
+			CompletableFuture<Set<Variable>> prefetched = prefetchedVariables.remove(variablesReference);
+			if (prefetched != null) {
+				prefetched.cancel(false);
+			}
+		}
+		for (CamelExpression expression : evaluations.keySet()) {
+			CompletableFuture<String> evaluation = evaluations.remove(expression);
+			if (evaluation != null) {
+				evaluation.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * Starts evaluating the expressions of the watch view with the provided executor, so that the evaluate requests
+	 * sent by the client right after a stopped event are answered without new JMX round trips. The expressions are
+	 * split into batches evaluated in parallel, an expression missing from the results of its batch is evaluated again
+	 * when it is requested.
+	 *
+	 * @param expressions the expressions to evaluate
+	 * @param batchEvaluator evaluates a batch of expressions at the breakpoint of this stack frame
+	 * @param batches the maximum number of batches, thus of evaluations in parallel
+	 * @param executor the executor on which the batches are evaluated
+	 */
+	public void prefetchEvaluations(List<CamelExpression> expressions, Function<List<CamelExpression>, Map<CamelExpression, String>> batchEvaluator,
+			int batches, Executor executor) {
+		int batchSize = (expressions.size() + batches - 1) / batches;
+		for (int start = 0; start < expressions.size(); start += batchSize) {
+			Map<CamelExpression, CompletableFuture<String>> batch = new LinkedHashMap<>();
+			for (CamelExpression expression : expressions.subList(start, Math.min(start + batchSize, expressions.size()))) {
+				CompletableFuture<String> evaluation = new CompletableFuture<>();
+				if (evaluations.putIfAbsent(expression, evaluation) == null) {
+					batch.put(expression, evaluation);
+				}
+			}
+			if (!batch.isEmpty()) {
+				CompletableFuture.runAsync(() -> evaluate(batch, batchEvaluator), executor);
+			}
+		}
+	}
+
+	private void evaluate(Map<CamelExpression, CompletableFuture<String>> batch, Function<List<CamelExpression>, Map<CamelExpression, String>> batchEvaluator) {
+		Map<CamelExpression, String> results = Map.of();
+		try {
+			results = batchEvaluator.apply(List.copyOf(batch.keySet()));
+		} finally {
+			for (Map.Entry<CamelExpression, CompletableFuture<String>> evaluation : batch.entrySet()) {
+				String result = results.get(evaluation.getKey());
+				if (result != null) {
+					evaluation.getValue().complete(result);
+				} else {
+					evaluations.remove(evaluation.getKey(), evaluation.getValue());
+					evaluation.getValue().completeExceptionally(new IllegalStateException("Cannot evaluate " + evaluation.getKey().expression()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the expression on the exchange suspended at the breakpoint of this stack frame. The result is cached
+	 * until the next stop, a failed evaluation is not cached so that it can be retried.
+	 *
+	 * @param expression the expression to evaluate
+	 * @param debugger the backlog debugger evaluating the expression
+	 * @return the result of the evaluation, converted to a String, <code>"null"</code> when there is no result
+	 */
+	public String evaluate(CamelExpression expression, ManagedBacklogDebuggerMBean debugger) {
+		CompletableFuture<String> evaluation = new CompletableFuture<>();
+		CompletableFuture<String> previousEvaluation = evaluations.putIfAbsent(expression, evaluation);
+		if (previousEvaluation != null) {
+			try {
+				return previousEvaluation.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Evaluation cancelled");
+			} catch (ExecutionException e) {
+				// The evaluation has failed in another request, try again below
+				evaluations.remove(expression, previousEvaluation);
+				return evaluate(expression, debugger);
+			}
+		}
+		try {
+			String result = evaluateUncached(expression, debugger);
+			evaluation.complete(result);
+			return result;
+		} catch (RuntimeException e) {
+			evaluations.remove(expression, evaluation);
+			evaluation.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Evaluates the expression on the exchange suspended at the breakpoint of this stack frame, without using nor
+	 * caching a previous result. This is for the expressions typed in the debug console, which may have side effects or
+	 * give a different result each time, such as <code>${random(10)}</code>.
+	 *
+	 * @param expression the expression to evaluate
+	 * @param debugger the backlog debugger evaluating the expression
+	 * @return the result of the evaluation, converted to a String, <code>"null"</code> when there is no result
+	 */
+	public String evaluateUncached(CamelExpression expression, ManagedBacklogDebuggerMBean debugger) {
+		// The variant returning a String fails when the result is null
+		return String.valueOf(debugger.evaluateExpressionAtBreakpoint(getName(), expression.language(), expression.expression(), String.class.getName()));
+	}
+
 	public Set<Variable> createVariables(int variablesReference, ManagedBacklogDebuggerMBean debugger) {
+		CompletableFuture<Set<Variable>> prefetched = prefetchedVariables.remove(variablesReference);
+		if (prefetched != null) {
+			try {
+				return prefetched.get();
+			} catch (InterruptedException e) {
+				// The request has been cancelled, the prefetched variables are kept for the next request
+				prefetchedVariables.putIfAbsent(variablesReference, prefetched);
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Variables request cancelled");
+			} catch (ExecutionException | CancellationException e) {
+				// The prefetch failed, try again below
+			}
+		}
 		Set<Variable> variables = new HashSet<>();
 		for (CamelScope camelScope : getScopes()) {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new CancellationException("Variables request cancelled");
+			}
 			variables.addAll(camelScope.createVariables(variablesReference, debugger));
 		}
 		return variables;
@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.model;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The expressions of the watch view of the client, which are evaluated again on each stop. The protocol does not tell
+ * when an expression is removed from the view, an expression is forgotten once it has not been evaluated during a few
+ * stops.
+ */
+public class WatchExpressions {
+
+	static final int MAX_EXPRESSIONS = 50;
+	static final int STOPS_BEFORE_FORGOTTEN = 5;
+
+	private final Map<CamelExpression, Long> lastWatchedStops = new ConcurrentHashMap<>();
+	private final AtomicLong stops = new AtomicLong();
+
+	/**
+	 * @param expression an expression evaluated for the watch view
+	 */
+	public void watched(CamelExpression expression) {
+		lastWatchedStops.put(expression, stops.get());
+		if (lastWatchedStops.size() > MAX_EXPRESSIONS) {
+			lastWatchedStops.entrySet().stream()
+				.min(Comparator.comparingLong(Map.Entry::getValue))
+				.ifPresent(oldest -> lastWatchedStops.remove(oldest.getKey(), oldest.getValue()));
+		}
+	}
+
+	/**
+	 * Called when an exchange is suspended.
+	 *
+	 * @return the expressions which are going to be evaluated by the client for this stop
+	 */
+	public List<CamelExpression> stopped() {
+		long stop = stops.incrementAndGet();
+		lastWatchedStops.values().removeIf(lastWatchedStop -> stop - lastWatchedStop > STOPS_BEFORE_FORGOTTEN);
+		return List.copyOf(lastWatchedStops.keySet());
+	}
+
+}
@@ -25,6 +25,7 @@ import org.eclipse.lsp4j.debug.SetVariableResponse;
 import org.eclipse.lsp4j.debug.Variable;
 
 import com.github.cameltooling.dap.internal.IdUtils;
+import com.github.cameltooling.dap.internal.jfr.MessageDumpEvent;
 import com.github.cameltooling.dap.internal.model.CamelScope;
 import com.github.cameltooling.dap.internal.model.CamelStackFrame;
 import com.github.cameltooling.dap.internal.types.EventMessage;
@@ -43,7 +44,10 @@ public class CamelExchangeScope extends CamelScope {
 		Set<Variable> variables = new HashSet<>();
 		if (variablesReference == getVariablesReference()) {
 			// Keep using deprecated method to have it still working with 4.1-
+			MessageDumpEvent dumpEvent = new MessageDumpEvent();
+			dumpEvent.begin();
 			String xml = debugger.dumpTracedMessagesAsXml(getBreakpointId(), true);
+			dumpEvent.complete(getBreakpointId(), xml);
 			EventMessage eventMessage = new UnmarshallerEventMessage().getUnmarshalledEventMessage(xml);
 			if (eventMessage != null) {
 				variables.add(createVariable("ID", eventMessage.getExchangeId()));
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.requests;
+
+import com.github.cameltooling.dap.internal.metrics.OperationMetrics;
+
+/**
+ * Metrics of the calls of an MBean operation or attribute. The durations are expressed in milliseconds. The response
+ * sizes are the number of characters of the strings and the number of elements of the collections.
+ */
+public class JmxOperationMetrics {
+
+	private String operation;
+	private long count;
+	private long failures;
+	private double meanMillis;
+	private double p50Millis;
+	private double p90Millis;
+	private double p99Millis;
+	private double maxMillis;
+	private double meanResponseSize;
+	private long maxResponseSize;
+
+	public static JmxOperationMetrics of(String operation, OperationMetrics.Snapshot snapshot) {
+		JmxOperationMetrics metrics = new JmxOperationMetrics();
+		metrics.setOperation(operation);
+		metrics.setCount(snapshot.latency().count());
+		metrics.setFailures(snapshot.failures());
+		metrics.setMeanMillis(snapshot.latency().mean());
+		metrics.setP50Millis(snapshot.latency().p50());
+		metrics.setP90Millis(snapshot.latency().p90());
+		metrics.setP99Millis(snapshot.latency().p99());
+		metrics.setMaxMillis(snapshot.latency().max());
+		metrics.setMeanResponseSize(snapshot.meanResponseSize());
+		metrics.setMaxResponseSize(snapshot.maxResponseSize());
+		return metrics;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public void setOperation(String operation) {
+		this.operation = operation;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	public long getFailures() {
+		return failures;
+	}
+
+	public void setFailures(long failures) {
+		this.failures = failures;
+	}
+
+	public double getMeanMillis() {
+		return meanMillis;
+	}
+
+	public void setMeanMillis(double meanMillis) {
+		this.meanMillis = meanMillis;
+	}
+
+	public double getP50Millis() {
+		return p50Millis;
+	}
+
+	public void setP50Millis(double p50Millis) {
+		this.p50Millis = p50Millis;
+	}
+
+	public double getP90Millis() {
+		return p90Millis;
+	}
+
+	public void setP90Millis(double p90Millis) {
+		this.p90Millis = p90Millis;
+	}
+
+	public double getP99Millis() {
+		return p99Millis;
+	}
+
+	public void setP99Millis(double p99Millis) {
+		this.p99Millis = p99Millis;
+	}
+
+	public double getMaxMillis() {
+		return maxMillis;
+	}
+
+	public void setMaxMillis(double maxMillis) {
+		this.maxMillis = maxMillis;
+	}
+
+	public double getMeanResponseSize() {
+		return meanResponseSize;
+	}
+
+	public void setMeanResponseSize(double meanResponseSize) {
+		this.meanResponseSize = meanResponseSize;
+	}
+
+	public long getMaxResponseSize() {
+		return maxResponseSize;
+	}
+
+	public void setMaxResponseSize(long maxResponseSize) {
+		this.maxResponseSize = maxResponseSize;
+	}
+
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.requests;
+
+import java.util.Objects;
+
+import com.github.cameltooling.dap.internal.model.CamelExchangeThread;
+import com.github.cameltooling.dap.internal.types.EventMessage;
+
+/**
+ * Arguments of the custom request resuming, or stepping, all the suspended exchanges matching a filter. The criteria
+ * which are not provided match all the exchanges.
+ */
+public class ResumeExchangesArguments {
+
+	private String routeId;
+	private String nodeId;
+	private String headerName;
+	private String headerValue;
+	private boolean step;
+
+	public String getRouteId() {
+		return routeId;
+	}
+
+	public void setRouteId(String routeId) {
+		this.routeId = routeId;
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	public void setNodeId(String nodeId) {
+		this.nodeId = nodeId;
+	}
+
+	/**
+	 * @return the name of a header which must be present on the message of the exchange
+	 */
+	public String getHeaderName() {
+		return headerName;
+	}
+
+	public void setHeaderName(String headerName) {
+		this.headerName = headerName;
+	}
+
+	/**
+	 * @return the value of the header, if not provided the header can have any value
+	 */
+	public String getHeaderValue() {
+		return headerValue;
+	}
+
+	public void setHeaderValue(String headerValue) {
+		this.headerValue = headerValue;
+	}
+
+	/**
+	 * @return whether the matching exchanges must step to the next node instead of being resumed
+	 */
+	public boolean isStep() {
+		return step;
+	}
+
+	public void setStep(boolean step) {
+		this.step = step;
+	}
+
+	/**
+	 * @return whether the message of the exchange is needed to know if it matches
+	 */
+	public boolean requiresMessage() {
+		return routeId != null || headerName != null;
+	}
+
+	public boolean matchesNode(String suspendedNodeId) {
+		return nodeId == null || nodeId.equals(suspendedNodeId);
+	}
+
+	public boolean matches(CamelExchangeThread camelThread) {
+		if (!matchesNode(camelThread.getBreakPointId())) {
+			return false;
+		}
+		if (!requiresMessage()) {
+			return true;
+		}
+		EventMessage eventMessage = camelThread.getEventMessage();
+		if (eventMessage == null) {
+			return false;
+		}
+		return (routeId == null || routeId.equals(eventMessage.getRouteId())) && matchesHeader(eventMessage);
+	}
+
+	private boolean matchesHeader(EventMessage eventMessage) {
+		if (headerName == null) {
+			return true;
+		}
+		if (eventMessage.getMessage() == null || eventMessage.getMessage().getHeaders() == null) {
+			return false;
+		}
+		return eventMessage.getMessage().getHeaders().stream()
+				.anyMatch(header -> headerName.equals(header.getKey()) && (headerValue == null || Objects.equals(headerValue, header.getValue())));
+	}
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.telemetry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Aggregates the telemetry events so that they are not sent one by one on the connection used by the debugging
+ * traffic. The events are counted by name and properties when recorded, and a summary of each of them is sent when
+ * flushing, with the number of occurrences in the {@value #PROPERTY_COUNT} property.
+ * <p>
+ * Recording never blocks and the memory used is bounded by the number of distinct events, not by the number of
+ * occurrences: when the capacity is reached, the events not already counted are dropped and only counted in the
+ * {@value #EVENT_DROPPED} summary.
+ */
+public class TelemetryAggregator {
+
+	public static final String PROPERTY_COUNT = "count";
+	public static final String EVENT_DROPPED = "camel.dap.telemetry.dropped";
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private final Consumer<TelemetryEvent> sender;
+	private final int capacity;
+	private final ConcurrentMap<EventKey, LongAdder> counts = new ConcurrentHashMap<>();
+	private final LongAdder dropped = new LongAdder();
+
+	/**
+	 * @param sender sends an event to the client
+	 * @param capacity the maximum number of distinct events, by name and properties, counted between two flushes
+	 */
+	public TelemetryAggregator(Consumer<TelemetryEvent> sender, int capacity) {
+		this.sender = sender;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @param name the name of the event
+	 * @param properties the properties of the event, the events with the same name and properties are counted together
+	 * @return whether the event has been counted, false if it has been dropped
+	 */
+	public boolean record(String name, Map<String, Object> properties) {
+		EventKey key = new EventKey(name, properties != null ? properties : Map.of());
+		// Computed atomically with the removal done by the flush, so that no occurrence is lost in between
+		LongAdder count = counts.compute(key, (eventKey, current) -> current != null || counts.size() < capacity ? increment(current) : null);
+		if (count != null) {
+			return true;
+		}
+		dropped.increment();
+		return false;
+	}
+
+	private static LongAdder increment(LongAdder current) {
+		LongAdder count = current != null ? current : new LongAdder();
+		count.increment();
+		return count;
+	}
+
+	/**
+	 * Sends an event immediately, for the ones which must not wait for the next flush.
+	 */
+	public void sendNow(String name, Map<String, Object> properties) {
+		sender.accept(new TelemetryEvent(name, properties));
+	}
+
+	/**
+	 * Sends a summary of the events recorded since the previous flush.
+	 */
+	public void flush() {
+		for (EventKey key : counts.keySet()) {
+			LongAdder count = counts.remove(key);
+			if (count != null) {
+				Map<String, Object> properties = new LinkedHashMap<>(key.properties());
+				properties.put(PROPERTY_COUNT, count.sum());
+				sender.accept(new TelemetryEvent(key.name(), properties));
+			}
+		}
+		long droppedCount = dropped.sumThenReset();
+		if (droppedCount > 0) {
+			sender.accept(new TelemetryEvent(EVENT_DROPPED, Map.of(PROPERTY_COUNT, droppedCount)));
+		}
+	}
+
+	/**
+	 * @return the number of distinct events counted since the previous flush
+	 */
+	public int getCountedEventsSize() {
+		return counts.size();
+	}
+
+	private record EventKey(String name, Map<String, Object> properties) {}
+
+}
@@ -25,16 +25,23 @@ import jakarta.xml.bind.Unmarshaller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.cameltooling.dap.internal.jfr.MessageParseEvent;
+
 public class UnmarshallerEventMessage {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(UnmarshallerEventMessage.class);
 
 	public EventMessage getUnmarshalledEventMessage(String xmlDump) {
+		MessageParseEvent parseEvent = new MessageParseEvent();
+		parseEvent.begin();
 		try {
 			JAXBContext context = JAXBContext.newInstance(EventMessage.class, Message.class, Header.class, ExchangeProperty.class, ExchangeVariable.class);
 			Unmarshaller um = context.createUnmarshaller();
-			return (EventMessage)um.unmarshal(new StringReader(xmlDump));
+			EventMessage eventMessage = (EventMessage)um.unmarshal(new StringReader(xmlDump));
+			parseEvent.complete(xmlDump, eventMessage != null ? eventMessage.getExchangeId() : null, true);
+			return eventMessage;
 		} catch (JAXBException ex) {
+			parseEvent.complete(xmlDump, null, false);
 			LOGGER.error("Cannot parse message from debugger", ex);
 		}
 		return null;
@@ -183,11 +183,15 @@ public abstract class BaseTest {
 
 	protected Capabilities initDebugger() throws Exception {
 		server = new CamelDebugAdapterServer();
-		clientProxy = new DummyCamelDebugClient(server);
+		clientProxy = createDebugClient(server);
 		server.connect(clientProxy);
 		return server.initialize(new InitializeRequestArguments()).get();
 	}
 
+	protected DummyCamelDebugClient createDebugClient(CamelDebugAdapterServer server) {
+		return new DummyCamelDebugClient(server);
+	}
+
 	protected void awaitAllVariablesFilled(int indexOfAllStacksAndVars, int variablesNumber) {
 		await().untilAsserted(() -> {
 			List<Variable> variables = Collections.unmodifiableList(clientProxy.getAllStacksAndVars().get(indexOfAllStacksAndVars).getVariables());
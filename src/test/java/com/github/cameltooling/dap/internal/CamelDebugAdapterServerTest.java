@@ -16,15 +16,25 @@
  */
 package com.github.cameltooling.dap.internal;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.impl.DefaultCamelContext;
+import org.eclipse.lsp4j.debug.DisconnectArguments;
+import org.eclipse.lsp4j.debug.TerminateArguments;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junitpioneer.jupiter.SetSystemProperty;
+
+import com.github.cameltooling.dap.internal.concurrent.RequestExecutor;
+import com.github.cameltooling.dap.internal.telemetry.TelemetryEvent;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 class CamelDebugAdapterServerTest extends BaseTest {
 	
@@ -73,6 +83,55 @@ class CamelDebugAdapterServerTest extends BaseTest {
 		checkConnectionEstablished();
 	}
 	
+	@Test
+	void testRequestLatenciesSentAsTelemetryOnDisconnect() throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		startBasicRoute(context);
+		attach(server);
+		server.threads().get();
+		server.threads().get();
+
+		server.disconnect(new DisconnectArguments()).get();
+
+		assertThat(clientProxy.getTelemetryEvents()).hasSize(2);
+		TelemetryEvent requestsEvent = (TelemetryEvent) clientProxy.getTelemetryEvents().get(1).getData();
+		assertThat(requestsEvent.name).isEqualTo(CamelDebugAdapterServer.TELEMETRY_REQUESTS);
+		assertThat(requestsEvent.properties)
+			.containsEntry("attach.count", 1L)
+			.containsEntry("threads.count", 2L)
+			.containsKeys("initialize.p50", "threads.p90", "threads.p99", "threads.max");
+	}
+
+	@Test
+	// Platform threads, to be able to check that they are gone
+	@SetSystemProperty(key = RequestExecutor.PROPERTY_EXECUTOR_TYPE, value = RequestExecutor.EXECUTOR_TYPE_PLATFORM)
+	void testSessionThreadsStoppedOnDisconnect() throws Exception {
+		Set<Thread> threadsBefore = Thread.getAllStackTraces().keySet();
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		startBasicRoute(context);
+		attach(server);
+		server.threads().get();
+		assertThat(sessionThreads(threadsBefore)).isNotEmpty();
+
+		server.disconnect(new DisconnectArguments()).get();
+
+		await().untilAsserted(() -> assertThat(sessionThreads(threadsBefore)).isEmpty());
+		// Requests received after the end of the session fail instead of hanging
+		assertThat(server.threads()).failsWithin(Duration.ofSeconds(5));
+		assertThat(server.terminate(new TerminateArguments())).succeedsWithin(Duration.ofSeconds(5));
+	}
+
+	private static List<String> sessionThreads(Set<Thread> threadsBefore) {
+		return Thread.getAllStackTraces().keySet().stream()
+				.filter(thread -> !threadsBefore.contains(thread))
+				.map(Thread::getName)
+				.filter(name -> name.startsWith("Camel DAP - Control requests") || name.startsWith("Camel DAP - Data requests")
+						|| name.equals("Camel DAP - Client events"))
+				.toList();
+	}
+
 	@Test
 	void testFailToAttach() throws Exception {
 		context = new DefaultCamelContext();
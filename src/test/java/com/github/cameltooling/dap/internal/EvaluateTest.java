@@ -0,0 +1,192 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.engine.DefaultProducerTemplate;
+import org.eclipse.lsp4j.debug.ContinueArguments;
+import org.eclipse.lsp4j.debug.EvaluateArguments;
+import org.eclipse.lsp4j.debug.EvaluateArgumentsContext;
+import org.eclipse.lsp4j.debug.InitializeRequestArguments;
+import org.eclipse.lsp4j.debug.NextArguments;
+import org.eclipse.lsp4j.debug.SetBreakpointsArguments;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.metrics.OperationMetrics;
+
+class EvaluateTest extends BaseTest {
+
+	@Test
+	void testEvaluate() throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		String startEndpointUri = "direct:testEvaluate";
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				from(startEndpointUri)
+					.routeId("a-route-id")
+					.setHeader("aHeader", constant("a header value"))
+					.log("Log from test"); // XXX-breakpoint-evaluate-XXX
+			}
+		});
+		context.start();
+		assertThat(context.isStarted()).isTrue();
+		initDebugger();
+		assertThat(server.initialize(new InitializeRequestArguments()).get().getSupportsEvaluateForHovers()).isTrue();
+		attach(server);
+		SetBreakpointsArguments setBreakpointsArguments = createSetBreakpointArgument("XXX-breakpoint-evaluate-XXX");
+		server.setBreakpoints(setBreakpointsArguments).get();
+
+		assertThatThrownBy(() -> evaluate("${body}", null))
+			.hasCauseInstanceOf(ResponseErrorException.class)
+			.hasMessageContaining("No suspended exchange");
+
+		producerTemplate = DefaultProducerTemplate.newInstance(context, startEndpointUri);
+		producerTemplate.start();
+		CompletableFuture<Object> asyncSendBody = producerTemplate.asyncSendBody(startEndpointUri, "a body");
+		waitBreakpointNotification(1);
+		// One more variable than by default for the header
+		awaitAllVariablesFilled(0, DEFAULT_VARIABLES_NUMBER + 1);
+		int frameId = clientProxy.getAllStacksAndVars().get(0).getStackFrames().get(0).getId();
+
+		assertThat(evaluate("${body}", frameId)).isEqualTo("a body");
+		assertThat(evaluate("${header.aHeader} and ${body}", frameId)).isEqualTo("a header value and a body");
+		assertThat(evaluate("header:aHeader", frameId)).isEqualTo("a header value");
+		// Without frame, evaluated on the only suspended exchange
+		assertThat(evaluate("${body.length()}", null)).isEqualTo("6");
+		assertThat(evaluate("${header.missing}", frameId)).isEqualTo("null");
+		// The language is not on the classpath of the Camel application, Camel provides the error as result
+		assertThat(evaluate("xquery:/a", frameId)).contains("xquery");
+
+		server.continue_(new ContinueArguments());
+		waitRouteIsDone(asyncSendBody);
+	}
+
+	@Test
+	void testWatchExpressionsEvaluatedOnStop() throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		String startEndpointUri = "direct:testWatch";
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				from(startEndpointUri)
+					.routeId("a-route-id")
+					.log("Log from test") // XXX-breakpoint-watch-XXX
+					.setBody(constant("an updated body"))
+					.log("last log");
+			}
+		});
+		context.start();
+		initDebugger();
+		attach(server);
+		server.setBreakpoints(createSetBreakpointArgument("XXX-breakpoint-watch-XXX")).get();
+		producerTemplate = DefaultProducerTemplate.newInstance(context, startEndpointUri);
+		producerTemplate.start();
+		CompletableFuture<Object> asyncSendBody = producerTemplate.asyncSendBody(startEndpointUri, "a body");
+		waitBreakpointNotification(1);
+		awaitAllVariablesFilled(0);
+		assertThat(evaluate("${body}", null)).isEqualTo("a body");
+		assertThat(evaluate("${body.length()}", null)).isEqualTo("6");
+		assertThat(countEvaluations()).isEqualTo(2);
+
+		NextArguments nextArguments = new NextArguments();
+		nextArguments.setThreadId(clientProxy.getStoppedEventArguments().get(0).getThreadId());
+		server.next(nextArguments);
+		waitBreakpointNotification(2);
+		server.next(nextArguments);
+		waitBreakpointNotification(3);
+
+		// Both watch expressions are evaluated on each stop, before the client requests them
+		await().untilAsserted(() -> assertThat(countEvaluations()).isEqualTo(6));
+		assertThat(evaluate("${body}", null)).isEqualTo("an updated body");
+		assertThat(evaluate("${body.length()}", null)).isEqualTo("15");
+		assertThat(countEvaluations()).isEqualTo(6);
+
+		server.continue_(new ContinueArguments());
+		waitRouteIsDone(asyncSendBody);
+	}
+
+	@Test
+	void testReplEvaluatedEachTime() throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		String startEndpointUri = "direct:testRepl";
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				from(startEndpointUri)
+					.routeId("a-route-id")
+					.log("Log from test"); // XXX-breakpoint-repl-XXX
+			}
+		});
+		context.start();
+		initDebugger();
+		attach(server);
+		server.setBreakpoints(createSetBreakpointArgument("XXX-breakpoint-repl-XXX")).get();
+		producerTemplate = DefaultProducerTemplate.newInstance(context, startEndpointUri);
+		producerTemplate.start();
+		CompletableFuture<Object> asyncSendBody = producerTemplate.asyncSendBody(startEndpointUri, "a body");
+		waitBreakpointNotification(1);
+		awaitAllVariablesFilled(0);
+
+		assertThat(evaluate("${body}", null, EvaluateArgumentsContext.REPL)).isEqualTo("a body");
+		assertThat(evaluate("${body}", null, EvaluateArgumentsContext.REPL)).isEqualTo("a body");
+		assertThat(countEvaluations()).isEqualTo(2);
+		// The result of a watch or hover expression is kept until the next stop
+		assertThat(evaluate("${body}", null, EvaluateArgumentsContext.HOVER)).isEqualTo("a body");
+		assertThat(evaluate("${body}", null, EvaluateArgumentsContext.HOVER)).isEqualTo("a body");
+		assertThat(countEvaluations()).isEqualTo(3);
+		// Not served from the cached hover result
+		assertThat(evaluate("${body}", null, EvaluateArgumentsContext.REPL)).isEqualTo("a body");
+		assertThat(countEvaluations()).isEqualTo(4);
+
+		server.continue_(new ContinueArguments());
+		waitRouteIsDone(asyncSendBody);
+	}
+
+	private long countEvaluations() {
+		OperationMetrics.Snapshot evaluations = server.getConnectionManager().getJmxCallMetrics().snapshot().get("evaluateExpressionAtBreakpoint");
+		return evaluations != null ? evaluations.latency().count() : 0;
+	}
+
+	private String evaluate(String expression, Integer frameId) throws InterruptedException, ExecutionException {
+		return evaluate(expression, frameId, EvaluateArgumentsContext.WATCH);
+	}
+
+	private String evaluate(String expression, Integer frameId, String context) throws InterruptedException, ExecutionException {
+		EvaluateArguments args = new EvaluateArguments();
+		args.setExpression(expression);
+		args.setFrameId(frameId);
+		args.setContext(context);
+		return server.evaluate(args).get().getResult();
+	}
+
+}
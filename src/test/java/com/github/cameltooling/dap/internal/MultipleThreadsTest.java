@@ -68,7 +68,10 @@ class MultipleThreadsTest extends BaseTest {
 		CompletableFuture<Object> asyncSendBody2 = producerTemplate.asyncSendBody(startEndpointUri2, "a body 2");
 
 		waitBreakpointNotification(2);
-		awaitAllVariablesFilled(0);
+		// The stopped events are handled asynchronously by the client, the second exchange can already be suspended when
+		// the threads are listed for the first stop
+		await().untilAsserted(() -> assertThat(clientProxy.getAllStacksAndVars().get(0).getVariables().size())
+				.isIn(DEFAULT_VARIABLES_NUMBER, 2*DEFAULT_VARIABLES_NUMBER));
 		awaitAllVariablesFilled(1, 2*DEFAULT_VARIABLES_NUMBER);
 		StoppedEventArguments stoppedEventArgument1 = clientProxy.getStoppedEventArguments().get(0);
 		assertThat(stoppedEventArgument1.getReason()).isEqualTo(StoppedEventArgumentsReason.BREAKPOINT);
@@ -79,7 +82,10 @@ class MultipleThreadsTest extends BaseTest {
 		assertThat(asyncSendBody2.isDone()).isFalse();
 
 		assertThat(clientProxy.getAllStacksAndVars()).hasSize(2);
-		assertThat(clientProxy.getAllStacksAndVars().get(0).getStackFrames()).hasSize(1);
+		// One stack frame for each exchange suspended when the threads were listed for the first stop
+		assertThat(clientProxy.getAllStacksAndVars().get(0).getStackFrames())
+				.hasSize(clientProxy.getAllStacksAndVars().get(0).getVariables().size() / DEFAULT_VARIABLES_NUMBER);
+		assertThat(clientProxy.getAllStacksAndVars().get(1).getStackFrames()).hasSize(2);
 		server.continue_(new ContinueArguments());
 
 		waitRouteIsDone(asyncSendBody1);
@@ -88,4 +94,45 @@ class MultipleThreadsTest extends BaseTest {
 		assertThat(clientProxy.getThreadEventArgumentss().stream().filter(args -> ThreadEventArgumentsReason.EXITED.equals(args.getReason()))).hasSize(2);
 	}
 	
+	@Test
+	void testExchangeSuspendedOnNodeResumedOutsideOfDebuggerIsNotified() throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		String startEndpointUri = "direct:testSameNode";
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				from(startEndpointUri)
+					.log("Log from test");  // XXX-breakpoint-same-node-XXX
+			}
+		});
+		context.start();
+		assertThat(context.isStarted()).isTrue();
+		initDebugger();
+		attach(server);
+		server.setBreakpoints(createSetBreakpointArgument("XXX-breakpoint-same-node-XXX")).get();
+
+		producerTemplate = DefaultProducerTemplate.newInstance(context, startEndpointUri);
+		producerTemplate.start();
+
+		CompletableFuture<Object> asyncSendBody1 = producerTemplate.asyncSendBody(startEndpointUri, "a body 1");
+		waitBreakpointNotification(1);
+		BacklogDebuggerConnectionManager connectionManager = server.getConnectionManager();
+		String nodeId = connectionManager.getNotifiedSuspendedExchangeIds().keySet().iterator().next();
+
+		// For instance when the fallback timeout of the backlog debugger is reached
+		connectionManager.getBacklogDebugger().resumeBreakpoint(nodeId);
+		waitRouteIsDone(asyncSendBody1);
+
+		CompletableFuture<Object> asyncSendBody2 = producerTemplate.asyncSendBody(startEndpointUri, "a body 2");
+		waitBreakpointNotification(2);
+		assertThat(connectionManager.getNotifiedSuspendedExchangeIds()).hasSize(1);
+		assertThat(connectionManager.getCamelExchangeThreads()).hasSize(1);
+
+		server.continue_(new ContinueArguments()).get();
+		waitRouteIsDone(asyncSendBody2);
+		assertThat(connectionManager.getNotifiedSuspendedExchangeIds()).isEmpty();
+	}
+
 }
@@ -17,7 +17,9 @@
 package com.github.cameltooling.dap.internal;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
@@ -27,6 +29,7 @@ import org.apache.camel.impl.engine.DefaultProducerTemplate;
 import org.eclipse.lsp4j.debug.ContinueArguments;
 import org.eclipse.lsp4j.debug.NextArguments;
 import org.eclipse.lsp4j.debug.SetBreakpointsArguments;
+import org.eclipse.lsp4j.debug.SourceBreakpoint;
 import org.eclipse.lsp4j.debug.StoppedEventArguments;
 import org.eclipse.lsp4j.debug.StoppedEventArgumentsReason;
 import org.eclipse.lsp4j.debug.Thread;
@@ -193,4 +196,58 @@ class NextStepTest extends BaseTest {
 		Thread[] threads = server.threads().get().getThreads();
 		assertThat(Stream.of(threads)).doesNotHaveAnyElementsOfTypes(CamelExchangeThread.class);
 	}
+
+	@Test
+	void testSteppingOutOfStoppedRoute() throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		String routeId = "a-route-id";
+		String startEndpointUri = "direct:testResume";
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				from(startEndpointUri)
+					.routeId(routeId)
+					.log("Log from test")  // XXX-breakpoint-step-out-of-stopped-route-XXX
+					.stop()
+					.log("never logged");
+			}
+		});
+		context.start();
+		assertThat(context.isStarted()).isTrue();
+		initDebugger();
+		attach(server, Map.of(
+				BacklogDebuggerConnectionManager.ATTACH_PARAM_POLL_INTERVAL, 100,
+				BacklogDebuggerConnectionManager.ATTACH_PARAM_FINISHED_EXCHANGE_GRACE_PERIOD, 500));
+		SetBreakpointsArguments setBreakpointsArguments = createSetBreakpointArgument("XXX-breakpoint-step-out-of-stopped-route-XXX");
+
+		server.setBreakpoints(setBreakpointsArguments).get();
+
+		producerTemplate = DefaultProducerTemplate.newInstance(context, startEndpointUri);
+		producerTemplate.start();
+
+		CompletableFuture<Object> asyncSendBody = producerTemplate.asyncSendBody(startEndpointUri, "a body");
+
+		waitBreakpointNotification(1);
+		awaitAllVariablesFilled(0);
+		NextArguments nextArguments = new NextArguments();
+		nextArguments.setThreadId(1);
+		server.next(nextArguments);
+
+		waitBreakpointNotification(2);
+		awaitAllVariablesFilled(1);
+		server.next(nextArguments);
+
+		waitRouteIsDone(asyncSendBody);
+
+		// The exchange has not left the route from its last node, its thread is removed after the grace period
+		await().untilAsserted(() -> assertThat(Stream.of(server.threads().get().getThreads())).doesNotHaveAnyElementsOfTypes(CamelExchangeThread.class));
+		assertThat(server.getConnectionManager().getCamelExchangeThreads()).isEmpty();
+
+		setBreakpointsArguments.setBreakpoints(new SourceBreakpoint[0]);
+		server.setBreakpoints(setBreakpointsArguments).get();
+		assertThat(server.getSourceToBreakpointIds()).isEmpty();
+		assertThat(server.getConnectionManager().getCamelBreakpointsWithSources()).isEmpty();
+	}
 }
@@ -73,14 +73,16 @@ class PauseRouteDefinitionTest extends BaseTest {
 		
 		// TODO: how to check that it is really Paused?
 		await("Stopped event sent")
-			.untilAsserted(() -> assertThat(clientProxy.getStoppedEventArguments()).hasSize(3));
+			.untilAsserted(() -> assertThat(clientProxy.getStoppedEventArguments()).hasSize(1));
+		assertThat(clientProxy.getStoppedEventArguments().get(0).getAllThreadsStopped()).isTrue();
 		
 		ContinueArguments continueArgs = new ContinueArguments();
 		continueArgs.setSingleThread(Boolean.FALSE);
 		server.continue_(continueArgs);
 		
 		await("Continue event sent")
-		.untilAsserted(() -> assertThat(clientProxy.getContinuedEventArgumentss()).hasSize(3));
+		.untilAsserted(() -> assertThat(clientProxy.getContinuedEventArgumentss()).hasSize(1));
+		assertThat(clientProxy.getContinuedEventArgumentss().get(0).getAllThreadsContinued()).isTrue();
 	}
 
 	@Test
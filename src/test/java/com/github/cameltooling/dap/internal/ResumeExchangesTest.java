@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.engine.DefaultProducerTemplate;
+import org.eclipse.lsp4j.debug.ThreadEventArgumentsReason;
+import org.eclipse.lsp4j.jsonrpc.services.ServiceEndpoints;
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.requests.ResumeExchangesArguments;
+
+class ResumeExchangesTest extends BaseTest {
+
+	@Test
+	void testCustomRequestIsExposed() {
+		assertThat(ServiceEndpoints.getSupportedMethods(CamelDebugAdapterServer.class))
+			.containsKey(CamelDebugAdapterServer.REQUEST_RESUME_EXCHANGES);
+	}
+
+	@Test
+	void testResumeExchangesMatchingFilter() throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		String startEndpointUri1 = "direct:testResumeExchanges1";
+		String startEndpointUri2 = "direct:testResumeExchanges2";
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				from(startEndpointUri1)
+					.routeId("a-route")
+					.log("Log from route a");  // XXX-breakpoint-route-a-XXX
+
+				from(startEndpointUri2)
+					.routeId("another-route")
+					.log("Log from another route");  // XXX-breakpoint-another-route-XXX
+			}
+		});
+		context.start();
+		assertThat(context.isStarted()).isTrue();
+		initDebugger();
+		attach(server);
+		server.setBreakpoints(createSetBreakpointArgument("XXX-breakpoint-route-a-XXX", "XXX-breakpoint-another-route-XXX")).get();
+
+		producerTemplate = DefaultProducerTemplate.newInstance(context, startEndpointUri1);
+		producerTemplate.start();
+		CompletableFuture<Object> asyncSendBody1 = producerTemplate.asyncRequestBodyAndHeader(startEndpointUri1, "a body 1", "priority", "low");
+		CompletableFuture<Object> asyncSendBody2 = producerTemplate.asyncRequestBodyAndHeader(startEndpointUri2, "a body 2", "priority", "high");
+		waitBreakpointNotification(2);
+
+		ResumeExchangesArguments routeFilter = new ResumeExchangesArguments();
+		routeFilter.setRouteId("a-route");
+		assertThat(server.resumeExchanges(routeFilter).get().getResumedThreadsCount()).isEqualTo(1);
+		waitRouteIsDone(asyncSendBody1);
+		assertThat(asyncSendBody2.isDone()).isFalse();
+		assertThat(clientProxy.getThreadEventArgumentss())
+			.filteredOn(args -> ThreadEventArgumentsReason.EXITED.equals(args.getReason()))
+			.hasSize(1);
+
+		ResumeExchangesArguments headerFilter = new ResumeExchangesArguments();
+		headerFilter.setHeaderName("priority");
+		headerFilter.setHeaderValue("low");
+		assertThat(server.resumeExchanges(headerFilter).get().getResumedThreadsCount()).isZero();
+		headerFilter.setHeaderValue("high");
+		assertThat(server.resumeExchanges(headerFilter).get().getResumedThreadsCount()).isEqualTo(1);
+		waitRouteIsDone(asyncSendBody2);
+		assertThat(server.getConnectionManager().getCamelExchangeThreads()).isEmpty();
+	}
+
+}
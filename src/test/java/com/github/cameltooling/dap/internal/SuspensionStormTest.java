@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.engine.DefaultProducerTemplate;
+import org.eclipse.lsp4j.debug.ContinueArguments;
+import org.eclipse.lsp4j.debug.StoppedEventArguments;
+import org.eclipse.lsp4j.debug.ThreadEventArguments;
+import org.eclipse.lsp4j.debug.ThreadEventArgumentsReason;
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.model.CamelExchangeThread;
+
+class SuspensionStormTest extends BaseTest {
+
+	@Test
+	void testSuspensionsAboveThresholdAreMaterializedOnDemand() throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		String startEndpointUri = "direct:testStorm";
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				from(startEndpointUri)
+					.log("Log from storm test");  // XXX-breakpoint-storm-XXX
+			}
+		});
+		context.start();
+		assertThat(context.isStarted()).isTrue();
+		initDebugger();
+		attach(server, Collections.singletonMap(BacklogDebuggerConnectionManager.ATTACH_PARAM_SUSPENSION_STORM_THRESHOLD, 0));
+		server.setBreakpoints(createSetBreakpointArgument("XXX-breakpoint-storm-XXX")).get();
+
+		producerTemplate = DefaultProducerTemplate.newInstance(context, startEndpointUri);
+		producerTemplate.start();
+		CompletableFuture<Object> asyncSendBody = producerTemplate.asyncSendBody(startEndpointUri, "a body");
+
+		waitBreakpointNotification(1);
+		StoppedEventArguments stoppedEvent = clientProxy.getStoppedEventArguments().get(0);
+		assertThat(stoppedEvent.getDescription()).isEqualTo("1 exchanges suspended");
+		assertThat(clientProxy.getThreadEventArgumentss())
+			.anyMatch(args -> args.getThreadId() == stoppedEvent.getThreadId() && ThreadEventArgumentsReason.STARTED.equals(args.getReason()));
+		assertThat(clientProxy.getAllStacksAndVars().get(0).getThreads())
+			.anyMatch(thread -> thread.getId() == stoppedEvent.getThreadId() && thread.getName().startsWith("Suspended at "));
+
+		// The stack trace requested by the client when opening the thread retrieves the message
+		awaitAllVariablesFilled(0);
+		CamelExchangeThread materializedThread = server.getConnectionManager().getCamelExchangeThread(stoppedEvent.getThreadId()).orElseThrow();
+		assertThat(materializedThread.isPlaceholder()).isFalse();
+		assertThat(materializedThread.getName()).isNotEmpty().doesNotStartWith("Suspended at ");
+
+		server.continue_(new ContinueArguments()).get();
+		waitRouteIsDone(asyncSendBody);
+		await().untilAsserted(() -> assertThat(clientProxy.getThreadEventArgumentss())
+			.filteredOn(args -> args.getThreadId() == stoppedEvent.getThreadId())
+			.extracting(ThreadEventArguments::getReason)
+			.containsExactly(ThreadEventArgumentsReason.STARTED, ThreadEventArgumentsReason.EXITED));
+	}
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.benchmark;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.engine.DefaultProducerTemplate;
+import org.eclipse.lsp4j.debug.ContinueArguments;
+import org.eclipse.lsp4j.debug.NextArguments;
+import org.eclipse.lsp4j.debug.TerminateArguments;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.github.cameltooling.dap.internal.BaseTest;
+import com.github.cameltooling.dap.internal.CamelDebugAdapterServer;
+import com.github.cameltooling.dap.internal.DummyCamelDebugClient;
+import com.github.cameltooling.dap.internal.metrics.LatencyHistogram;
+
+/**
+ * Measures the latencies perceived by the users, from the client side, against an embedded Camel context. The
+ * percentiles are written in <code>target/benchmark-reports/debug-latencies.txt</code>.
+ * <p>
+ * Run with <code>mvn -Pbenchmark test</code>, the number of iterations can be changed with the
+ * <code>benchmark.iterations</code> and <code>benchmark.attachIterations</code> system properties.
+ */
+@Tag("benchmark")
+class DebugLatencyBenchmarkTest extends BaseTest {
+
+	private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 100);
+	private static final int ATTACH_ITERATIONS = Integer.getInteger("benchmark.attachIterations", 10);
+	private static final LatencyReport REPORT = new LatencyReport("debug-latencies");
+
+	private final AtomicLong breakpointReachedNanos = new AtomicLong();
+
+	@AfterAll
+	static void writeReport() throws IOException {
+		REPORT.write();
+	}
+
+	@Override
+	protected DummyCamelDebugClient createDebugClient(CamelDebugAdapterServer server) {
+		return new TimestampingDebugClient(server);
+	}
+
+	@Test
+	void benchmarkStepping() throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		String startEndpointUri = "direct:benchmark";
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				from(startEndpointUri)
+					.routeId("a-route-id")
+					.process(exchange -> breakpointReachedNanos.set(System.nanoTime()))
+					.log("first log") // XXX-breakpoint-benchmark-XXX
+					.log("second log");
+			}
+		});
+		context.start();
+		initDebugger();
+		attach(server);
+		server.setBreakpoints(createSetBreakpointArgument("XXX-breakpoint-benchmark-XXX")).get();
+		producerTemplate = DefaultProducerTemplate.newInstance(context, startEndpointUri);
+		producerTemplate.start();
+		TimestampingDebugClient client = (TimestampingDebugClient) clientProxy;
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			int breakpointStop = 2 * i;
+			CompletableFuture<Object> asyncSendBody = producerTemplate.asyncSendBody(startEndpointUri, "a body");
+			awaitStopFetched(client, breakpointStop);
+			REPORT.histogram("breakpoint reached -> stopped").record(client.getStoppedNanos(breakpointStop) - breakpointReachedNanos.get(), NANOSECONDS);
+			recordFetch(client, breakpointStop);
+			int threadId = clientProxy.getStoppedEventArguments().get(breakpointStop).getThreadId();
+
+			NextArguments nextArguments = new NextArguments();
+			nextArguments.setThreadId(threadId);
+			long nextNanos = System.nanoTime();
+			server.next(nextArguments);
+			awaitStopFetched(client, breakpointStop + 1);
+			REPORT.histogram("next -> stopped").record(client.getStoppedNanos(breakpointStop + 1) - nextNanos, NANOSECONDS);
+			recordFetch(client, breakpointStop + 1);
+
+			ContinueArguments continueArguments = new ContinueArguments();
+			continueArguments.setThreadId(threadId);
+			long continueNanos = System.nanoTime();
+			server.continue_(continueArguments);
+			asyncSendBody.get(5, TimeUnit.SECONDS);
+			REPORT.histogram("continue -> exchange done").recordSince(continueNanos);
+		}
+		assertThat(REPORT.histogram("next -> stopped").getCount()).isEqualTo(ITERATIONS);
+	}
+
+	private void recordFetch(TimestampingDebugClient client, int stop) {
+		REPORT.histogram("stopped -> threads, stack frames and variables fetched").record(client.getFetchedNanos(stop) - client.getStoppedNanos(stop), NANOSECONDS);
+	}
+
+	private void awaitStopFetched(TimestampingDebugClient client, int stop) {
+		await("Wait that the stop is notified and its variables are fetched")
+			.pollInterval(Duration.ofMillis(1))
+			.atMost(Duration.ofSeconds(5))
+			.until(() -> client.getFetchedCount() > stop);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 100, 1000 })
+	void benchmarkAttach(int routeCount) throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				for (int i = 0; i < routeCount; i++) {
+					from("direct:route" + i)
+						.routeId("route-" + i)
+						.log("first log of route " + i)
+						.log("second log of route " + i);
+				}
+			}
+		});
+		context.start();
+		LatencyHistogram histogram = REPORT.histogram(String.format("attach with %4d routes", routeCount));
+
+		for (int i = 0; i < ATTACH_ITERATIONS; i++) {
+			initDebugger();
+			long attachNanos = System.nanoTime();
+			attach(server);
+			histogram.recordSince(attachNanos);
+			server.terminate(new TerminateArguments()).get();
+			server = null;
+		}
+		assertThat(histogram.getCount()).isEqualTo(ATTACH_ITERATIONS);
+	}
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.cameltooling.dap.internal.metrics.LatencyHistogram;
+
+/**
+ * Collects the latencies measured by a benchmark and writes their percentiles in
+ * <code>target/benchmark-reports/&lt;name&gt;.txt</code>.
+ */
+public class LatencyReport {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LatencyReport.class);
+	private static final Path REPORTS_DIRECTORY = Paths.get("target", "benchmark-reports");
+
+	private final String name;
+	private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+	private final Map<String, String> values = new ConcurrentHashMap<>();
+
+	public LatencyReport(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @param measure the name of the measured latency
+	 * @return the histogram in which the latencies of the measure are recorded
+	 */
+	public LatencyHistogram histogram(String measure) {
+		return histograms.computeIfAbsent(measure, key -> new LatencyHistogram());
+	}
+
+	/**
+	 * @param measure the name of a measure which is not a latency, for instance a memory usage
+	 * @param value the formatted value of the measure
+	 */
+	public void value(String measure, String value) {
+		values.put(measure, value);
+	}
+
+	public void write() throws IOException {
+		List<String> lines = new ArrayList<>();
+		histograms.forEach((measure, histogram) -> lines.add(measure + ": " + histogram.snapshot()));
+		values.entrySet().stream()
+			.sorted(Map.Entry.comparingByKey())
+			.forEach(entry -> lines.add(entry.getKey() + ": " + entry.getValue()));
+		lines.forEach(line -> LOGGER.info("{} - {}", name, line));
+		Files.createDirectories(REPORTS_DIRECTORY);
+		Files.write(REPORTS_DIRECTORY.resolve(name + ".txt"), lines);
+	}
+
+}
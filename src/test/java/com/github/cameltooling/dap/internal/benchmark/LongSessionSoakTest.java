@@ -0,0 +1,239 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.engine.DefaultProducerTemplate;
+import org.eclipse.lsp4j.debug.ContinueArguments;
+import org.eclipse.lsp4j.debug.ContinuedEventArguments;
+import org.eclipse.lsp4j.debug.NextArguments;
+import org.eclipse.lsp4j.debug.Scope;
+import org.eclipse.lsp4j.debug.ScopesArguments;
+import org.eclipse.lsp4j.debug.SetBreakpointsArguments;
+import org.eclipse.lsp4j.debug.StackFrame;
+import org.eclipse.lsp4j.debug.StackTraceArguments;
+import org.eclipse.lsp4j.debug.StoppedEventArguments;
+import org.eclipse.lsp4j.debug.ThreadEventArguments;
+import org.eclipse.lsp4j.debug.VariablesArguments;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.BacklogDebuggerConnectionManager;
+import com.github.cameltooling.dap.internal.BaseTest;
+import com.github.cameltooling.dap.internal.CamelDebugAdapterServer;
+import com.github.cameltooling.dap.internal.DummyCamelDebugClient;
+import com.github.cameltooling.dap.internal.metrics.LatencyHistogram;
+import com.github.cameltooling.dap.internal.model.CamelExchangeThread;
+
+/**
+ * Runs a long debug session, with thousands of breakpoint, step and resume cycles, to detect what is leaking in the
+ * adapter. Half of the exchanges are stepped out of a <code>stop</code> node, so that they finish without leaving their
+ * route from its last node. The results are written in <code>target/benchmark-reports/soak.txt</code>.
+ * <p>
+ * Run with <code>mvn -Psoak test</code>, the number of cycles can be changed with the <code>soak.cycles</code> system
+ * property.
+ */
+@Tag("soak")
+class LongSessionSoakTest extends BaseTest {
+
+	private static final int CYCLES = Integer.getInteger("soak.cycles", 2000);
+	private static final int WARM_UP_CYCLES = Math.max(1, CYCLES / 10);
+	private static final long MAX_HEAP_GROWTH_BYTES = 16L * 1024 * 1024;
+	private static final LatencyReport REPORT = new LatencyReport("soak");
+
+	@AfterAll
+	static void writeReport() throws IOException {
+		REPORT.write();
+	}
+
+	@Override
+	protected DummyCamelDebugClient createDebugClient(CamelDebugAdapterServer server) {
+		return new LightDebugClient(server);
+	}
+
+	@Test
+	void testLongSession() throws Exception {
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				from("direct:soak")
+					.routeId("soak-route")
+					.log("first log") // XXX-breakpoint-soak-XXX
+					.log("second log")
+					.log("last log");
+				from("direct:soak-stop")
+					.routeId("soak-stop-route")
+					.log("first log") // XXX-breakpoint-soak-stop-XXX
+					.stop()
+					.log("never logged");
+			}
+		});
+		context.start();
+		initDebugger();
+		attach(server, Map.of(
+				BacklogDebuggerConnectionManager.ATTACH_PARAM_POLL_INTERVAL, 20,
+				BacklogDebuggerConnectionManager.ATTACH_PARAM_FINISHED_EXCHANGE_GRACE_PERIOD, 200));
+		BacklogDebuggerConnectionManager connectionManager = server.getConnectionManager();
+		SetBreakpointsArguments setBreakpoints = createSetBreakpointArgument("XXX-breakpoint-soak-XXX", "XXX-breakpoint-soak-stop-XXX");
+		SetBreakpointsArguments clearBreakpoints = createSetBreakpointArgument();
+		producerTemplate = DefaultProducerTemplate.newInstance(context, "direct:soak");
+		producerTemplate.start();
+		LightDebugClient client = (LightDebugClient) clientProxy;
+		LatencyHistogram cycleHistogram = REPORT.histogram("cycle");
+		long warmHeap = 0;
+
+		for (int i = 0; i < CYCLES; i++) {
+			long start = System.nanoTime();
+			server.setBreakpoints(setBreakpoints).get();
+			boolean steppingOutOfStop = i % 2 == 0;
+			CompletableFuture<Object> asyncSendBody = producerTemplate.asyncSendBody(steppingOutOfStop ? "direct:soak-stop" : "direct:soak", "a body");
+			int threadId = awaitStop(client, 2 * i + 1);
+			next(threadId);
+			awaitStop(client, 2 * i + 2);
+			if (steppingOutOfStop) {
+				next(threadId);
+			} else {
+				ContinueArguments continueArguments = new ContinueArguments();
+				continueArguments.setThreadId(threadId);
+				server.continue_(continueArguments);
+			}
+			asyncSendBody.get(5, TimeUnit.SECONDS);
+			server.setBreakpoints(clearBreakpoints).get();
+			cycleHistogram.recordSince(start);
+
+			assertThat(connectionManager.getCamelBreakpointsWithSources()).isEmpty();
+			assertThat(server.getSourceToBreakpointIds()).isEmpty();
+			if (i + 1 == WARM_UP_CYCLES) {
+				warmHeap = usedHeapOnceExchangeThreadsRemoved();
+			}
+		}
+
+		long finalHeap = usedHeapOnceExchangeThreadsRemoved();
+		long heapGrowth = finalHeap - warmHeap;
+		REPORT.value("heap growth after the warm-up", String.format("%.1f MB", heapGrowth / (1024d * 1024d)));
+		assertThat(client.getStoppedCount()).isEqualTo(2 * CYCLES);
+		assertThat(heapGrowth).isLessThan(MAX_HEAP_GROWTH_BYTES);
+	}
+
+	private long usedHeapOnceExchangeThreadsRemoved() {
+		await("Wait that the threads of the finished exchanges are removed")
+			.atMost(Duration.ofSeconds(5))
+			.untilAsserted(() -> {
+				assertThat(server.getConnectionManager().getCamelExchangeThreads()).isEmpty();
+				assertThat(Stream.of(server.threads().get().getThreads())).doesNotHaveAnyElementsOfTypes(CamelExchangeThread.class);
+			});
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private void next(int threadId) {
+		NextArguments nextArguments = new NextArguments();
+		nextArguments.setThreadId(threadId);
+		server.next(nextArguments);
+	}
+
+	private int awaitStop(LightDebugClient client, int expectedStops) {
+		await("Wait that the stop is notified and its variables are fetched")
+			.pollInterval(Duration.ofMillis(1))
+			.atMost(Duration.ofSeconds(5))
+			.until(() -> client.getFetchedCount() >= expectedStops);
+		return client.getLastStoppedEventArguments().getThreadId();
+	}
+
+	/**
+	 * Client fetching only the stack frames and the variables of the stopped thread, and keeping none of the events, so
+	 * that the heap used by the client does not grow along the session.
+	 */
+	private static class LightDebugClient extends DummyCamelDebugClient {
+
+		private final CamelDebugAdapterServer server;
+		private final AtomicInteger stoppedCount = new AtomicInteger();
+		private final AtomicInteger fetchedCount = new AtomicInteger();
+		private volatile StoppedEventArguments lastStoppedEventArguments;
+
+		LightDebugClient(CamelDebugAdapterServer server) {
+			super(server);
+			this.server = server;
+		}
+
+		@Override
+		public void stopped(StoppedEventArguments args) {
+			lastStoppedEventArguments = args;
+			stoppedCount.incrementAndGet();
+			try {
+				StackTraceArguments stackTraceArguments = new StackTraceArguments();
+				stackTraceArguments.setThreadId(args.getThreadId());
+				for (StackFrame stackFrame : server.stackTrace(stackTraceArguments).get().getStackFrames()) {
+					ScopesArguments scopesArguments = new ScopesArguments();
+					scopesArguments.setFrameId(stackFrame.getId());
+					for (Scope scope : server.scopes(scopesArguments).get().getScopes()) {
+						VariablesArguments variablesArguments = new VariablesArguments();
+						variablesArguments.setVariablesReference(scope.getVariablesReference());
+						server.variables(variablesArguments).get();
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e);
+			} finally {
+				fetchedCount.incrementAndGet();
+			}
+		}
+
+		@Override
+		public void thread(ThreadEventArguments args) {
+			// Not kept
+		}
+
+		@Override
+		public void continued(ContinuedEventArguments args) {
+			// Not kept
+		}
+
+		int getStoppedCount() {
+			return stoppedCount.get();
+		}
+
+		int getFetchedCount() {
+			return fetchedCount.get();
+		}
+
+		StoppedEventArguments getLastStoppedEventArguments() {
+			return lastStoppedEventArguments;
+		}
+	}
+
+}
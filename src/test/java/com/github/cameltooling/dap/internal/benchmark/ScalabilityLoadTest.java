@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.engine.DefaultProducerTemplate;
+import org.apache.camel.support.PluginHelper;
+import org.eclipse.lsp4j.debug.ContinueArguments;
+import org.eclipse.lsp4j.debug.Scope;
+import org.eclipse.lsp4j.debug.ScopesArguments;
+import org.eclipse.lsp4j.debug.SetBreakpointsArguments;
+import org.eclipse.lsp4j.debug.Source;
+import org.eclipse.lsp4j.debug.SourceBreakpoint;
+import org.eclipse.lsp4j.debug.StackFrame;
+import org.eclipse.lsp4j.debug.StackTraceArguments;
+import org.eclipse.lsp4j.debug.StoppedEventArguments;
+import org.eclipse.lsp4j.debug.Thread;
+import org.eclipse.lsp4j.debug.VariablesArguments;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.github.cameltooling.dap.internal.BaseTest;
+import com.github.cameltooling.dap.internal.CamelDebugAdapterServer;
+import com.github.cameltooling.dap.internal.DummyCamelDebugClient;
+import com.github.cameltooling.dap.internal.metrics.LatencyHistogram;
+import com.github.cameltooling.dap.internal.model.CamelExchangeThread;
+
+/**
+ * Measures the latencies of the requests and the heap usage when a large number of exchanges are suspended in a
+ * context containing a large number of routes. The results are written in
+ * <code>target/benchmark-reports/load.txt</code>.
+ * <p>
+ * Run with <code>mvn -Pload test</code>.
+ */
+@Tag("load")
+class ScalabilityLoadTest extends BaseTest {
+
+	private static final int REPETITIONS = 20;
+	/** Number of threads for which the stack frames and the variables are retrieved */
+	private static final int INSPECTED_THREADS = 100;
+	private static final LatencyReport REPORT = new LatencyReport("load");
+
+	@AfterAll
+	static void writeReport() throws IOException {
+		REPORT.write();
+	}
+
+	@Override
+	protected DummyCamelDebugClient createDebugClient(CamelDebugAdapterServer server) {
+		// Retrieving the variables of all the threads on each stop would be quadratic with the number of exchanges
+		return new DummyCamelDebugClient(server) {
+
+			@Override
+			public void stopped(StoppedEventArguments args) {
+				getStoppedEventArguments().add(args);
+			}
+		};
+	}
+
+	@ParameterizedTest(name = "{0} routes, {1} exchanges")
+	@CsvSource({ "100, 10", "1000, 100", "10000, 1000" })
+	void testSuspendedExchanges(int routeCount, int exchangeCount) throws Exception {
+		String scenario = String.format("%5d routes, %4d exchanges - ", routeCount, exchangeCount);
+		context = new DefaultCamelContext();
+		context.setSourceLocationEnabled(true);
+		RoutesFile routesFile = generateRoutes(routeCount, exchangeCount);
+		PluginHelper.getRoutesLoader(context).loadRoutes(PluginHelper.getResourceLoader(context).resolveResource("file:" + routesFile.file()));
+		context.start();
+		long baselineHeap = usedHeap();
+		initDebugger();
+		attach(server);
+		long setBreakpointsStart = System.nanoTime();
+		server.setBreakpoints(routesFile.breakpoints()).get();
+		REPORT.histogram(scenario + "setBreakpoints").recordSince(setBreakpointsStart);
+		producerTemplate = DefaultProducerTemplate.newInstance(context, "direct:route0");
+		producerTemplate.start();
+
+		ExecutorService senders = Executors.newFixedThreadPool(exchangeCount);
+		try {
+			List<Future<Object>> exchanges = new ArrayList<>();
+			for (int i = 0; i < exchangeCount; i++) {
+				String endpointUri = "direct:route" + i;
+				exchanges.add(senders.submit(() -> producerTemplate.requestBody(endpointUri, "a body")));
+			}
+			await("Wait that all the exchanges are suspended")
+				.atMost(Duration.ofMinutes(5))
+				.until(() -> countExchangeThreads(server.threads().get().getThreads()) == exchangeCount);
+			REPORT.value(scenario + "heap used by the suspended exchanges and the adapter", toMegabytes(usedHeap() - baselineHeap));
+
+			Thread[] threads = null;
+			LatencyHistogram threadsHistogram = REPORT.histogram(scenario + "threads");
+			for (int i = 0; i < REPETITIONS; i++) {
+				long start = System.nanoTime();
+				threads = server.threads().get().getThreads();
+				threadsHistogram.recordSince(start);
+			}
+			Stream.of(threads)
+				.filter(CamelExchangeThread.class::isInstance)
+				.limit(INSPECTED_THREADS)
+				.forEach(thread -> inspect(scenario, thread));
+
+			ContinueArguments continueArguments = new ContinueArguments();
+			long resumeStart = System.nanoTime();
+			server.continue_(continueArguments).get();
+			REPORT.histogram(scenario + "resumeAll").recordSince(resumeStart);
+			for (Future<Object> exchange : exchanges) {
+				exchange.get(5, TimeUnit.MINUTES);
+			}
+			REPORT.histogram(scenario + "resumeAll -> all exchanges done").recordSince(resumeStart);
+		} finally {
+			senders.shutdownNow();
+		}
+		assertThat(countExchangeThreads(server.threads().get().getThreads())).isZero();
+	}
+
+	/**
+	 * The routes are generated in XML, with a different line for each node, because the backlog debugger is suspending
+	 * only one exchange by node and the lines of the breakpoints must identify a single node.
+	 */
+	private static RoutesFile generateRoutes(int routeCount, int breakpointCount) throws IOException {
+		List<String> lines = new ArrayList<>();
+		List<SourceBreakpoint> breakpoints = new ArrayList<>();
+		lines.add("<routes xmlns=\"http://camel.apache.org/schema/spring\">");
+		for (int i = 0; i < routeCount; i++) {
+			lines.add("    <route id=\"route-" + i + "\">");
+			lines.add("        <from uri=\"direct:route" + i + "\"/>");
+			lines.add("        <log message=\"first log of route " + i + "\"/>");
+			if (i < breakpointCount) {
+				SourceBreakpoint breakpoint = new SourceBreakpoint();
+				breakpoint.setLine(lines.size());
+				breakpoints.add(breakpoint);
+			}
+			lines.add("        <log message=\"second log of route " + i + "\"/>");
+			lines.add("    </route>");
+		}
+		lines.add("</routes>");
+		Path file = Paths.get("target", "load-test", "routes-" + routeCount + ".xml").toAbsolutePath();
+		Files.createDirectories(file.getParent());
+		Files.write(file, lines);
+		SetBreakpointsArguments setBreakpointsArguments = new SetBreakpointsArguments();
+		Source source = new Source();
+		source.setPath(file.toString());
+		setBreakpointsArguments.setSource(source);
+		setBreakpointsArguments.setBreakpoints(breakpoints.toArray(new SourceBreakpoint[0]));
+		return new RoutesFile(file, setBreakpointsArguments);
+	}
+
+	private void inspect(String scenario, Thread thread) {
+		try {
+			StackTraceArguments stackTraceArguments = new StackTraceArguments();
+			stackTraceArguments.setThreadId(thread.getId());
+			long start = System.nanoTime();
+			StackFrame[] stackFrames = server.stackTrace(stackTraceArguments).get().getStackFrames();
+			REPORT.histogram(scenario + "stackTrace").recordSince(start);
+			for (StackFrame stackFrame : stackFrames) {
+				ScopesArguments scopesArguments = new ScopesArguments();
+				scopesArguments.setFrameId(stackFrame.getId());
+				for (Scope scope : server.scopes(scopesArguments).get().getScopes()) {
+					VariablesArguments variablesArguments = new VariablesArguments();
+					variablesArguments.setVariablesReference(scope.getVariablesReference());
+					start = System.nanoTime();
+					server.variables(variablesArguments).get();
+					REPORT.histogram(scenario + "variables").recordSince(start);
+				}
+			}
+		} catch (InterruptedException e) {
+			java.lang.Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static long countExchangeThreads(Thread[] threads) {
+		return Stream.of(threads).filter(CamelExchangeThread.class::isInstance).count();
+	}
+
+	private static long usedHeap() {
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private static String toMegabytes(long bytes) {
+		return String.format("%.1f MB", bytes / (1024d * 1024d));
+	}
+
+	private record RoutesFile(Path file, SetBreakpointsArguments breakpoints) {}
+
+}
@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.benchmark;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.lsp4j.debug.ContinueArguments;
+import org.eclipse.lsp4j.debug.EvaluateArguments;
+import org.eclipse.lsp4j.debug.EvaluateArgumentsContext;
+import org.eclipse.lsp4j.debug.EvaluateResponse;
+import org.eclipse.lsp4j.debug.NextArguments;
+import org.eclipse.lsp4j.debug.TerminateArguments;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.github.cameltooling.dap.internal.BaseTest;
+import com.github.cameltooling.dap.internal.CamelDebugAdapterServer;
+import com.github.cameltooling.dap.internal.DummyCamelDebugClient;
+import com.github.cameltooling.dap.internal.simulation.SimulatedCamelApplication;
+import com.github.cameltooling.dap.internal.simulation.SimulatedLatency;
+
+/**
+ * Measures the latencies perceived by the users against a {@link SimulatedCamelApplication}, for several latencies of
+ * the connection. The percentiles are written in <code>target/benchmark-reports/simulated-latencies.txt</code>.
+ * <p>
+ * Run with <code>mvn -Pbenchmark test</code>, the number of iterations can be changed with the
+ * <code>benchmark.simulatedIterations</code> system property and the size of the message bodies with
+ * <code>benchmark.messageSize</code>.
+ */
+@Tag("benchmark")
+class SimulatedLatencyBenchmarkTest extends BaseTest {
+
+	private static final int ITERATIONS = Integer.getInteger("benchmark.simulatedIterations", 20);
+	private static final int MESSAGE_SIZE = Integer.getInteger("benchmark.messageSize", 10000);
+	private static final int WATCH_EXPRESSIONS = 20;
+	private static final LatencyReport REPORT = new LatencyReport("simulated-latencies");
+
+	private SimulatedCamelApplication application;
+
+	@AfterAll
+	static void writeReport() throws IOException {
+		REPORT.write();
+	}
+
+	@AfterEach
+	void closeApplication() throws Exception {
+		if (server != null) {
+			server.terminate(new TerminateArguments()).get();
+			server = null;
+		}
+		if (application != null) {
+			application.close();
+		}
+	}
+
+	@Override
+	protected DummyCamelDebugClient createDebugClient(CamelDebugAdapterServer server) {
+		return new TimestampingDebugClient(server);
+	}
+
+	static Stream<Arguments> latencies() {
+		return Stream.of(
+				Arguments.of("no latency", SimulatedLatency.NONE),
+				Arguments.of("LAN", SimulatedLatency.LAN),
+				Arguments.of("WAN", SimulatedLatency.WAN));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("latencies")
+	void benchmarkStepping(String name, SimulatedLatency latency) throws Exception {
+		application = new SimulatedCamelApplication(100, 3);
+		application.setMessageSize(MESSAGE_SIZE);
+		application.setLatency(latency);
+		String jmxUrl = application.start();
+		initDebugger();
+		attachWithJMXURL(server, jmxUrl);
+		String routeId = SimulatedCamelApplication.getRouteId(0);
+		server.setBreakpoints(application.createSetBreakpointsArguments(List.of(application.getNodeIds(routeId).get(0)))).get();
+		TimestampingDebugClient client = (TimestampingDebugClient) clientProxy;
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			int breakpointStop = 2 * i;
+			long sendNanos = System.nanoTime();
+			application.send(routeId);
+			awaitStopFetched(client, breakpointStop);
+			REPORT.histogram(name + " - breakpoint reached -> stopped").record(client.getStoppedNanos(breakpointStop) - sendNanos, NANOSECONDS);
+			recordFetch(name, client, breakpointStop);
+			int threadId = clientProxy.getStoppedEventArguments().get(breakpointStop).getThreadId();
+
+			NextArguments nextArguments = new NextArguments();
+			nextArguments.setThreadId(threadId);
+			long nextNanos = System.nanoTime();
+			server.next(nextArguments);
+			awaitStopFetched(client, breakpointStop + 1);
+			REPORT.histogram(name + " - next -> stopped").record(client.getStoppedNanos(breakpointStop + 1) - nextNanos, NANOSECONDS);
+			recordFetch(name, client, breakpointStop + 1);
+
+			ContinueArguments continueArguments = new ContinueArguments();
+			continueArguments.setThreadId(threadId);
+			long continueNanos = System.nanoTime();
+			server.continue_(continueArguments);
+			int completedExchanges = i + 1;
+			await("Wait that the exchange is done")
+				.pollInterval(Duration.ofMillis(1))
+				.atMost(Duration.ofSeconds(30))
+				.until(() -> application.getDebugger().getCompletedExchangeCount() == completedExchanges);
+			REPORT.histogram(name + " - continue -> exchange done").recordSince(continueNanos);
+		}
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("latencies")
+	void benchmarkWatchExpressions(String name, SimulatedLatency latency) throws Exception {
+		application = new SimulatedCamelApplication(1, 1);
+		application.setLatency(latency);
+		String jmxUrl = application.start();
+		initDebugger();
+		attachWithJMXURL(server, jmxUrl);
+		String routeId = SimulatedCamelApplication.getRouteId(0);
+		server.setBreakpoints(application.createSetBreakpointsArguments(application.getNodeIds(routeId))).get();
+		TimestampingDebugClient client = (TimestampingDebugClient) clientProxy;
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			application.send(routeId);
+			awaitStopFetched(client, i);
+			// As the clients are doing, all the watch expressions are requested at once right after the stop
+			List<CompletableFuture<EvaluateResponse>> evaluations = new ArrayList<>();
+			for (int expression = 0; expression < WATCH_EXPRESSIONS; expression++) {
+				EvaluateArguments evaluateArguments = new EvaluateArguments();
+				evaluateArguments.setExpression("${header.header" + expression + "}");
+				evaluateArguments.setContext(EvaluateArgumentsContext.WATCH);
+				evaluations.add(server.evaluate(evaluateArguments));
+			}
+			CompletableFuture.allOf(evaluations.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+			if (i > 0) {
+				// The expressions are known from the first stop on
+				REPORT.histogram(name + " - stopped -> " + WATCH_EXPRESSIONS + " watch expressions evaluated").record(System.nanoTime() - client.getStoppedNanos(i), NANOSECONDS);
+			}
+
+			server.continue_(new ContinueArguments());
+			int completedExchanges = i + 1;
+			await("Wait that the exchange is done")
+				.pollInterval(Duration.ofMillis(1))
+				.atMost(Duration.ofSeconds(30))
+				.until(() -> application.getDebugger().getCompletedExchangeCount() == completedExchanges);
+		}
+	}
+
+	private void recordFetch(String name, TimestampingDebugClient client, int stop) {
+		REPORT.histogram(name + " - stopped -> threads, stack frames and variables fetched").record(client.getFetchedNanos(stop) - client.getStoppedNanos(stop), NANOSECONDS);
+	}
+
+	private void awaitStopFetched(TimestampingDebugClient client, int stop) {
+		await("Wait that the stop is notified and its variables are fetched")
+			.pollInterval(Duration.ofMillis(1))
+			.atMost(Duration.ofSeconds(30))
+			.until(() -> client.getFetchedCount() > stop);
+	}
+
+}
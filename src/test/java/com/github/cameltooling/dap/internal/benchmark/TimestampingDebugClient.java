@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.benchmark;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.lsp4j.debug.StoppedEventArguments;
+
+import com.github.cameltooling.dap.internal.CamelDebugAdapterServer;
+import com.github.cameltooling.dap.internal.DummyCamelDebugClient;
+
+/**
+ * Records when the stopped events are received and when the client has finished to retrieve the threads, stack
+ * frames and variables of the stop, as a user interface is doing.
+ */
+public class TimestampingDebugClient extends DummyCamelDebugClient {
+
+	private final List<Long> stoppedNanos = new CopyOnWriteArrayList<>();
+	private final List<Long> fetchedNanos = new CopyOnWriteArrayList<>();
+
+	public TimestampingDebugClient(CamelDebugAdapterServer server) {
+		super(server);
+	}
+
+	@Override
+	public void stopped(StoppedEventArguments args) {
+		stoppedNanos.add(System.nanoTime());
+		super.stopped(args);
+		fetchedNanos.add(System.nanoTime());
+	}
+
+	public long getStoppedNanos(int index) {
+		return stoppedNanos.get(index);
+	}
+
+	public long getFetchedNanos(int index) {
+		return fetchedNanos.get(index);
+	}
+
+	public int getFetchedCount() {
+		return fetchedNanos.size();
+	}
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BoundedParallelismTest {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void testConcurrentOperationsAreBounded() {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		List<Integer> items = IntStream.range(0, 50).boxed().toList();
+
+		List<Integer> processed = BoundedParallelism.forEach(items, 4, executor, item -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			running.decrementAndGet();
+			return true;
+		});
+
+		assertThat(processed).containsExactlyInAnyOrderElementsOf(items);
+		assertThat(maxRunning.get()).isBetween(1, 4);
+	}
+
+	@Test
+	void testOnlySucceededItemsAreReturned() {
+		List<Integer> processed = BoundedParallelism.forEach(List.of(1, 2, 3, 4), 2, executor, item -> item % 2 == 0);
+
+		assertThat(processed).containsExactlyInAnyOrder(2, 4);
+	}
+
+	@Test
+	void testItemsAreProcessedWhenExecutorIsSaturated() {
+		List<Integer> processed = BoundedParallelism.forEach(List.of(1, 2, 3), 3, command -> {}, item -> true);
+
+		assertThat(processed).containsExactlyInAnyOrder(1, 2, 3);
+	}
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.junit.jupiter.api.Test;
+
+class CancellableRequestTrackerTest {
+
+	private final CancellableRequestTracker tracker = new CancellableRequestTracker();
+
+	@Test
+	void testRequestIsCancelledBySeq() {
+		CompletableFuture<String> future = new CompletableFuture<>();
+		CancellableRequestTracker.runWithRequestSeq(12, () -> tracker.track(future));
+
+		assertThat(tracker.cancel(11)).isFalse();
+		assertThat(tracker.cancel(12)).isTrue();
+		assertThat(future).isCancelled();
+		assertThat(tracker.getInProgressRequestsCount()).isZero();
+	}
+
+	@Test
+	void testCompletedRequestIsNotTrackedAnymore() {
+		CompletableFuture<String> future = new CompletableFuture<>();
+		CancellableRequestTracker.runWithRequestSeq(3, () -> tracker.track(future));
+		future.complete("done");
+
+		assertThat(tracker.getInProgressRequestsCount()).isZero();
+		assertThat(tracker.cancel(3)).isFalse();
+	}
+
+	@Test
+	void testRequestOutsideOfMessageIsNotTracked() {
+		tracker.track(new CompletableFuture<>());
+
+		assertThat(tracker.getInProgressRequestsCount()).isZero();
+	}
+
+	@Test
+	void testWrappedConsumerExposesSeqOfRequests() {
+		CompletableFuture<String> future = new CompletableFuture<>();
+		AtomicReference<Object> consumedMessage = new AtomicReference<>();
+		RequestMessage request = new RequestMessage();
+		request.setId(7);
+		request.setMethod("variables");
+
+		CancellableRequestTracker.wrap(message -> {
+			consumedMessage.set(message);
+			tracker.track(future);
+		}).consume(request);
+		CancellableRequestTracker.wrap(message -> tracker.track(new CompletableFuture<>())).consume(new NotificationMessage());
+
+		assertThat(consumedMessage).hasValue(request);
+		assertThat(tracker.getInProgressRequestsCount()).isEqualTo(1);
+		assertThat(tracker.cancel(7)).isTrue();
+	}
+
+}
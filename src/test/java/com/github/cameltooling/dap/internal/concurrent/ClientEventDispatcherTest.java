@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lsp4j.debug.OutputEventArguments;
+import org.eclipse.lsp4j.debug.StoppedEventArguments;
+import org.eclipse.lsp4j.debug.ThreadEventArguments;
+import org.eclipse.lsp4j.debug.ThreadEventArgumentsReason;
+import org.eclipse.lsp4j.debug.services.IDebugProtocolClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ClientEventDispatcherTest {
+
+	private final List<Object> receivedEvents = new CopyOnWriteArrayList<>();
+	private final CountDownLatch releaseClient = new CountDownLatch(1);
+	private final ClientEventDispatcher dispatcher = new ClientEventDispatcher(new IDebugProtocolClient() {
+
+		@Override
+		public void output(OutputEventArguments args) {
+			try {
+				// Simulates a slow connection, the events sent meanwhile are queued
+				releaseClient.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			receivedEvents.add(args);
+		}
+
+		@Override
+		public void thread(ThreadEventArguments args) {
+			receivedEvents.add(args);
+		}
+
+		@Override
+		public void stopped(StoppedEventArguments args) {
+			receivedEvents.add(args);
+		}
+	});
+
+	@AfterEach
+	void tearDown() {
+		releaseClient.countDown();
+		dispatcher.close();
+	}
+
+	@Test
+	void testEventsAreSentInOrderWithoutBlockingProducers() throws Exception {
+		OutputEventArguments output = new OutputEventArguments();
+		ThreadEventArguments started = createThreadEvent(1, ThreadEventArgumentsReason.STARTED);
+		StoppedEventArguments stopped = new StoppedEventArguments();
+		ThreadEventArguments exited = createThreadEvent(1, ThreadEventArgumentsReason.EXITED);
+
+		dispatcher.output(output);
+		dispatcher.thread(started);
+		dispatcher.stopped(stopped);
+		dispatcher.thread(exited);
+		assertThat(receivedEvents).isEmpty();
+
+		releaseClient.countDown();
+		dispatcher.flush().get(5, TimeUnit.SECONDS);
+		assertThat(receivedEvents).containsExactly(output, started, stopped, exited);
+	}
+
+	@Test
+	void testIdenticalConsecutiveThreadEventsAreSentOnce() throws Exception {
+		dispatcher.output(new OutputEventArguments());
+		dispatcher.thread(createThreadEvent(1, ThreadEventArgumentsReason.STARTED));
+		dispatcher.thread(createThreadEvent(1, ThreadEventArgumentsReason.STARTED));
+		dispatcher.thread(createThreadEvent(2, ThreadEventArgumentsReason.STARTED));
+
+		releaseClient.countDown();
+		dispatcher.flush().get(5, TimeUnit.SECONDS);
+		assertThat(receivedEvents).hasSize(3);
+	}
+
+	@Test
+	void testFlushConcurrentWithCloseCompletes() throws Exception {
+		for (int i = 0; i < 200; i++) {
+			ClientEventDispatcher closingDispatcher = new ClientEventDispatcher(new IDebugProtocolClient() {});
+			Thread closingThread = new Thread(closingDispatcher::close);
+			closingThread.start();
+			CompletableFuture<Void> flushed = closingDispatcher.flush();
+			closingThread.join();
+			flushed.get(5, TimeUnit.SECONDS);
+		}
+	}
+
+	private ThreadEventArguments createThreadEvent(int threadId, String reason) {
+		ThreadEventArguments threadEvent = new ThreadEventArguments();
+		threadEvent.setThreadId(threadId);
+		threadEvent.setReason(reason);
+		return threadEvent;
+	}
+
+}
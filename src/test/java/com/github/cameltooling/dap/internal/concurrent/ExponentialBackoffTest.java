@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ExponentialBackoffTest {
+
+	@Test
+	void testDelayDoublesWithJitter() {
+		ExponentialBackoff backoff = new ExponentialBackoff(100, 10000, new Random(42));
+
+		assertThat(backoff.nextDelayMillis()).isBetween(50L, 100L);
+		assertThat(backoff.nextDelayMillis()).isBetween(100L, 200L);
+		assertThat(backoff.nextDelayMillis()).isBetween(200L, 400L);
+		assertThat(backoff.getAttempts()).isEqualTo(3);
+	}
+
+	@Test
+	void testDelayIsCapped() {
+		ExponentialBackoff backoff = new ExponentialBackoff(100, 1000, new Random(42));
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(backoff.nextDelayMillis()).isLessThanOrEqualTo(1000L);
+		}
+		assertThat(backoff.nextDelayMillis()).isBetween(500L, 1000L);
+	}
+
+	@Test
+	void testReset() {
+		ExponentialBackoff backoff = new ExponentialBackoff(100, 10000, new Random(42));
+		backoff.nextDelayMillis();
+		backoff.nextDelayMillis();
+
+		backoff.reset();
+
+		assertThat(backoff.getAttempts()).isZero();
+		assertThat(backoff.nextDelayMillis()).isBetween(50L, 100L);
+	}
+
+}
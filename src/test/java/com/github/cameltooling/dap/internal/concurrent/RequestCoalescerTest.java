@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class RequestCoalescerTest {
+
+	private final RequestCoalescer coalescer = new RequestCoalescer();
+	private final AtomicInteger executedRequests = new AtomicInteger();
+
+	@Test
+	void testIdenticalConcurrentRequestsShareTheSameResult() throws Exception {
+		CompletableFuture<String> pendingResult = new CompletableFuture<>();
+		CompletableFuture<String> first = coalescer.coalesce("variables", 1, () -> start(pendingResult));
+		CompletableFuture<String> second = coalescer.coalesce("variables", 1, () -> start(pendingResult));
+
+		assertThat(executedRequests).hasValue(1);
+		pendingResult.complete("result");
+		assertThat(first.get()).isEqualTo("result");
+		assertThat(second.get()).isEqualTo("result");
+		assertThat(coalescer.getInFlightRequestsCount()).isZero();
+	}
+
+	@Test
+	void testDifferentArgumentsAreNotCoalesced() {
+		coalescer.coalesce("variables", 1, () -> start(new CompletableFuture<>()));
+		coalescer.coalesce("variables", 2, () -> start(new CompletableFuture<>()));
+		coalescer.coalesce("scopes", 1, () -> start(new CompletableFuture<>()));
+
+		assertThat(executedRequests).hasValue(3);
+		assertThat(coalescer.getInFlightRequestsCount()).isEqualTo(3);
+	}
+
+	@Test
+	void testCompletedRequestIsExecutedAgain() throws Exception {
+		assertThat(coalescer.coalesce("threads", null, () -> start(CompletableFuture.completedFuture("first"))).get()).isEqualTo("first");
+		assertThat(coalescer.coalesce("threads", null, () -> start(CompletableFuture.completedFuture("second"))).get()).isEqualTo("second");
+
+		assertThat(executedRequests).hasValue(2);
+	}
+
+	@Test
+	void testCancellingOneCallerDoesNotCancelTheSharedRequest() throws Exception {
+		CompletableFuture<String> pendingResult = new CompletableFuture<>();
+		CompletableFuture<String> first = coalescer.coalesce("threads", null, () -> start(pendingResult));
+		CompletableFuture<String> second = coalescer.coalesce("threads", null, () -> start(pendingResult));
+
+		first.cancel(true);
+		pendingResult.complete("result");
+		assertThat(second.get()).isEqualTo("result");
+	}
+
+	@Test
+	void testCancellingAllCallersCancelsTheSharedRequest() {
+		CompletableFuture<String> pendingResult = new CompletableFuture<>();
+		CompletableFuture<String> first = coalescer.coalesce("variables", 1, () -> start(pendingResult));
+		CompletableFuture<String> second = coalescer.coalesce("variables", 1, () -> start(pendingResult));
+
+		first.cancel(true);
+		assertThat(pendingResult).isNotCancelled();
+		second.cancel(true);
+		assertThat(pendingResult).isCancelled();
+		assertThat(coalescer.getInFlightRequestsCount()).isZero();
+	}
+
+	private CompletableFuture<String> start(CompletableFuture<String> result) {
+		executedRequests.incrementAndGet();
+		return result;
+	}
+
+}
@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junitpioneer.jupiter.SetSystemProperty;
+
+class RequestExecutorTest {
+
+	private RequestExecutor executor;
+
+	@AfterEach
+	void tearDown() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	@SetSystemProperty(key = RequestExecutor.PROPERTY_EXECUTOR_TYPE, value = RequestExecutor.EXECUTOR_TYPE_PLATFORM)
+	void testPlatformThreadsCanBeForced() {
+		executor = RequestExecutor.create("test");
+		assertThat(executor.isUsingVirtualThreads()).isFalse();
+	}
+
+	@Test
+	void testTaskSubmittedAfterShutdownFails() {
+		executor = new RequestExecutor("test", false, 1);
+		executor.shutdown();
+
+		assertThat(executor.supplyAsync(() -> "result")).isCompletedExceptionally();
+		assertThat(executor.getQueueDepth()).isZero();
+	}
+
+	@Test
+	void testContextClassLoaderIsPropagated() throws Exception {
+		executor = new RequestExecutor("test", false, 1);
+		ClassLoader initialCCL = Thread.currentThread().getContextClassLoader();
+		try (URLClassLoader callerCCL = new URLClassLoader(new URL[0], initialCCL)) {
+			Thread.currentThread().setContextClassLoader(callerCCL);
+			CompletableFuture<ClassLoader> ccl = executor.supplyAsync(() -> Thread.currentThread().getContextClassLoader());
+			assertThat(ccl.get()).isSameAs(callerCCL);
+		} finally {
+			Thread.currentThread().setContextClassLoader(initialCCL);
+		}
+	}
+
+	@Test
+	void testQueueDepthMetrics() throws Exception {
+		executor = new RequestExecutor("test", false, 1);
+		CountDownLatch blockingTaskStarted = new CountDownLatch(1);
+		CountDownLatch releaseBlockingTask = new CountDownLatch(1);
+		CompletableFuture<Void> blockingTask = executor.runAsync(() -> {
+			blockingTaskStarted.countDown();
+			try {
+				releaseBlockingTask.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		blockingTaskStarted.await();
+		CompletableFuture<Void> queuedTask1 = executor.runAsync(() -> {});
+		CompletableFuture<Void> queuedTask2 = executor.runAsync(() -> {});
+
+		assertThat(executor.getActiveTaskCount()).isEqualTo(1);
+		assertThat(executor.getQueueDepth()).isEqualTo(2);
+
+		releaseBlockingTask.countDown();
+		CompletableFuture.allOf(blockingTask, queuedTask1, queuedTask2).get();
+		await().untilAsserted(() -> assertThat(executor.getCompletedTaskCount()).isEqualTo(3));
+		assertThat(executor.getQueueDepth()).isZero();
+		assertThat(executor.getMaxQueueDepth()).isEqualTo(2);
+	}
+
+	@Test
+	void testCancellationInterruptsRunningTask() throws Exception {
+		executor = new RequestExecutor("test", false, 1);
+		CountDownLatch taskStarted = new CountDownLatch(1);
+		CountDownLatch taskInterrupted = new CountDownLatch(1);
+		CompletableFuture<Void> task = executor.runAsync(() -> {
+			taskStarted.countDown();
+			try {
+				new CountDownLatch(1).await();
+			} catch (InterruptedException e) {
+				taskInterrupted.countDown();
+			}
+		});
+		taskStarted.await();
+
+		task.cancel(true);
+		assertThat(taskInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(executor.supplyAsync(() -> Thread.currentThread().isInterrupted()).get()).isFalse();
+	}
+
+	@Test
+	void testCancelledTaskIsNotStarted() throws Exception {
+		executor = new RequestExecutor("test", false, 1);
+		CountDownLatch releaseBlockingTask = new CountDownLatch(1);
+		executor.runAsync(() -> {
+			try {
+				releaseBlockingTask.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		AtomicBoolean queuedTaskStarted = new AtomicBoolean();
+		CompletableFuture<Void> queuedTask = executor.runAsync(() -> queuedTaskStarted.set(true));
+
+		queuedTask.cancel(true);
+		releaseBlockingTask.countDown();
+		await().untilAsserted(() -> assertThat(executor.getCompletedTaskCount()).isEqualTo(2));
+		assertThat(queuedTaskStarted).isFalse();
+	}
+
+	@Test
+	void testLatencyIsRecorded() throws Exception {
+		executor = new RequestExecutor("test", false, 1);
+		executor.runAsync(() -> {}).get();
+		await().untilAsserted(() -> assertThat(executor.getLatencyHistogram().getCount()).isEqualTo(1));
+	}
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.eclipse.lsp4j.debug.ThreadEventArguments;
+import org.eclipse.lsp4j.debug.services.IDebugProtocolClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.cameltooling.dap.internal.concurrent.ClientEventDispatcher;
+import com.github.cameltooling.dap.internal.types.UnmarshallerEventMessage;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class JfrEventsTest {
+
+	@TempDir
+	Path recordingDirectory;
+
+	@Test
+	void testEventsAreRecorded() throws Exception {
+		Path recordingFile = recordingDirectory.resolve("camel-dap.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("camel.dap.MessageParse");
+			recording.enable("camel.dap.ClientEventDispatch");
+			recording.start();
+
+			new UnmarshallerEventMessage().getUnmarshalledEventMessage("<backlogTracerEventMessage><exchangeId>an-exchange-id</exchangeId></backlogTracerEventMessage>");
+			ClientEventDispatcher dispatcher = new ClientEventDispatcher(new IDebugProtocolClient() {});
+			ThreadEventArguments threadEvent = new ThreadEventArguments();
+			dispatcher.thread(threadEvent);
+			dispatcher.thread(threadEvent);
+			dispatcher.flush().get();
+			// The flush is completed while its batch is being sent, the event of the batch is committed only once the
+			// next batch is processed
+			dispatcher.flush().get();
+			dispatcher.close();
+
+			recording.stop();
+			recording.dump(recordingFile);
+		}
+
+		List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+		assertThat(events).filteredOn(event -> "camel.dap.MessageParse".equals(event.getEventType().getName()))
+			.singleElement()
+			.satisfies(event -> {
+				assertThat(event.getString("exchangeId")).isEqualTo("an-exchange-id");
+				assertThat(event.getBoolean("parsed")).isTrue();
+				assertThat(event.getLong("size")).isPositive();
+			});
+		assertThat(events).filteredOn(event -> "camel.dap.ClientEventDispatch".equals(event.getEventType().getName()))
+			.isNotEmpty()
+			.allSatisfy(event -> assertThat(event.getInt("sentEvents")).isLessThanOrEqualTo(event.getInt("batchSize")));
+	}
+
+}
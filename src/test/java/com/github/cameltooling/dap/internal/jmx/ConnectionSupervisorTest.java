@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.remote.JMXConnectionNotification;
+import javax.management.remote.JMXConnector;
+
+import org.jolokia.client.J4pClient;
+import org.jolokia.client.exception.J4pException;
+import org.jolokia.client.exception.UncheckedJmxAdapterException;
+import org.jolokia.client.request.J4pVersionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.concurrent.ExponentialBackoff;
+
+class ConnectionSupervisorTest {
+
+	private final List<JMXConnector> resynchronizedConnectors = new CopyOnWriteArrayList<>();
+	private final AtomicInteger failingConnections = new AtomicInteger();
+	private final JMXConnector initialConnector = mock(JMXConnector.class);
+	private final ConnectionSupervisor supervisor = new ConnectionSupervisor(this::createConnector, resynchronizedConnectors::add,
+			new ExponentialBackoff(1, 10));
+
+	private JMXConnector createConnector() throws IOException {
+		if (failingConnections.getAndDecrement() > 0) {
+			throw new IOException("Connection refused");
+		}
+		return mock(JMXConnector.class);
+	}
+
+	@AfterEach
+	void tearDown() {
+		supervisor.close();
+	}
+
+	@Test
+	void testReconnectOnFailedNotification() throws Exception {
+		failingConnections.set(3);
+		supervisor.supervise(initialConnector);
+
+		supervisor.handleNotification(notification(JMXConnectionNotification.FAILED), initialConnector);
+
+		assertThat(supervisor.isConnected()).isFalse();
+		await("Reconnected").untilAsserted(() -> assertThat(supervisor.isConnected()).isTrue());
+		assertThat(resynchronizedConnectors).hasSize(1).doesNotContain(initialConnector);
+		assertThat(supervisor.getReconnections()).isEqualTo(1);
+		verify(initialConnector).close();
+		verify(resynchronizedConnectors.get(0)).addConnectionNotificationListener(eq(supervisor), any(), eq(resynchronizedConnectors.get(0)));
+	}
+
+	@Test
+	void testNotificationOfPreviousConnectorIsIgnored() {
+		supervisor.supervise(initialConnector);
+
+		supervisor.handleNotification(notification(JMXConnectionNotification.CLOSED), mock(JMXConnector.class));
+
+		assertThat(supervisor.isConnected()).isTrue();
+	}
+
+	@Test
+	void testSingleReconnectionForConcurrentFailures() {
+		supervisor.supervise(initialConnector);
+
+		supervisor.connectionLost(new IOException("first"));
+		supervisor.connectionLost(new IOException("second"));
+
+		await("Reconnected").untilAsserted(() -> assertThat(supervisor.isConnected()).isTrue());
+		assertThat(resynchronizedConnectors).hasSize(1);
+	}
+
+	@Test
+	void testNoReconnectionOnceClosed() {
+		supervisor.supervise(initialConnector);
+		supervisor.close();
+
+		supervisor.connectionLost(new IOException("closed"));
+
+		assertThat(supervisor.isConnected()).isFalse();
+		assertThat(resynchronizedConnectors).isEmpty();
+	}
+
+	@Test
+	void testIsConnectionFailure() {
+		assertThat(ConnectionSupervisor.isConnectionFailure(new UndeclaredThrowableException(new IOException()))).isTrue();
+		assertThat(ConnectionSupervisor.isConnectionFailure(new IllegalStateException())).isFalse();
+		assertThat(ConnectionSupervisor.isConnectionFailure(new UndeclaredThrowableException(new SocketTimeoutException()))).isTrue();
+		Thread.currentThread().interrupt();
+		try {
+			assertThat(ConnectionSupervisor.isConnectionFailure(new UndeclaredThrowableException(new InterruptedIOException()))).isFalse();
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+	@Test
+	void testJolokiaEndpointNeverAnsweringIsConnectionFailure() throws Exception {
+		// Accepts the connections but never answers the requests
+		try (ServerSocket silentEndpoint = new ServerSocket(0)) {
+			J4pClient jolokiaClient = J4pClient.url("http://localhost:" + silentEndpoint.getLocalPort() + "/jolokia/")
+					.socketTimeout(200)
+					.build();
+
+			Throwable error = catchThrowable(() -> jolokiaClient.execute(new J4pVersionRequest()));
+
+			assertThat(error).isInstanceOf(J4pException.class).hasRootCauseInstanceOf(SocketTimeoutException.class);
+			assertThat(ConnectionSupervisor.isConnectionFailure(new UncheckedJmxAdapterException((Exception) error))).isTrue();
+		}
+	}
+
+	private JMXConnectionNotification notification(String type) {
+		return new JMXConnectionNotification(type, "connector", "connectionId", 1, "message", null);
+	}
+
+}
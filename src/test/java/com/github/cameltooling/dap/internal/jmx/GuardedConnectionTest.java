@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GuardedConnectionTest {
+
+	private static final Set<ObjectName> ROUTES = Set.of();
+
+	private final MBeanServerConnection delegate = mock(MBeanServerConnection.class);
+	private final AtomicInteger openings = new AtomicInteger();
+	private final AtomicInteger closings = new AtomicInteger();
+	private final AtomicBoolean stalled = new AtomicBoolean();
+	private final CountDownLatch stallReleased = new CountDownLatch(1);
+	private final GuardedConnection guardedConnection = new GuardedConnection(delegate, 100, 2, 200, new GuardedConnection.CircuitListener() {
+
+		@Override
+		public void circuitOpened(Throwable cause) {
+			openings.incrementAndGet();
+		}
+
+		@Override
+		public void circuitClosed() {
+			closings.incrementAndGet();
+		}
+	});
+	private final MBeanServerConnection connection = guardedConnection.proxy();
+
+	GuardedConnectionTest() throws Exception {
+		when(delegate.queryNames(any(), any())).thenAnswer(invocation -> {
+			if (stalled.get()) {
+				stallReleased.await();
+			}
+			return ROUTES;
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		stallReleased.countDown();
+	}
+
+	@Test
+	void testStalledCallTimesOut() {
+		stalled.set(true);
+
+		assertThatThrownBy(() -> connection.queryNames(null, null)).isInstanceOf(DegradedConnectionException.class);
+		assertThat(guardedConnection.getState()).isEqualTo(GuardedConnection.CircuitState.CLOSED);
+	}
+
+	@Test
+	void testCircuitOpenedAnswersWithLastResult() throws Exception {
+		assertThat(connection.queryNames(null, null)).isSameAs(ROUTES);
+		stalled.set(true);
+
+		assertThat(connection.queryNames(null, null)).isSameAs(ROUTES);
+		assertThat(connection.queryNames(null, null)).isSameAs(ROUTES);
+
+		assertThat(guardedConnection.getState()).isEqualTo(GuardedConnection.CircuitState.OPEN);
+		assertThat(openings).hasValue(1);
+		// Rejected immediately without calling the stalled application
+		assertThat(connection.queryNames(null, null)).isSameAs(ROUTES);
+		verify(delegate, times(3)).queryNames(any(), any());
+		assertThatThrownBy(() -> connection.getMBeanCount()).isInstanceOf(DegradedConnectionException.class);
+	}
+
+	@Test
+	void testCircuitOpenedFailsStatePolling() throws Exception {
+		ObjectName debuggerName = new ObjectName("org.apache.camel:type=tracer,name=BacklogDebugger");
+		when(delegate.invoke(debuggerName, "suspendedBreakpointNodeIds", null, null)).thenReturn(Set.of("log1"));
+		when(delegate.invoke(debuggerName, "getBodyMaxChars", null, null)).thenReturn(1000);
+		connection.invoke(debuggerName, "suspendedBreakpointNodeIds", null, null);
+		connection.invoke(debuggerName, "getBodyMaxChars", null, null);
+		stalled.set(true);
+		assertThatThrownBy(() -> connection.queryNames(null, null)).isInstanceOf(DegradedConnectionException.class);
+		assertThatThrownBy(() -> connection.queryNames(null, null)).isInstanceOf(DegradedConnectionException.class);
+		assertThat(guardedConnection.getState()).isEqualTo(GuardedConnection.CircuitState.OPEN);
+
+		assertThat(connection.invoke(debuggerName, "getBodyMaxChars", null, null)).isEqualTo(1000);
+		assertThatThrownBy(() -> connection.invoke(debuggerName, "suspendedBreakpointNodeIds", null, null))
+			.isInstanceOf(DegradedConnectionException.class);
+	}
+
+	@Test
+	void testCircuitClosedAfterSuccessfulTrial() throws Exception {
+		when(delegate.getMBeanCount()).thenThrow(new IOException("Connection reset"), new IOException("Connection reset")).thenReturn(5);
+		assertThatThrownBy(() -> connection.getMBeanCount()).isInstanceOf(IOException.class);
+		assertThatThrownBy(() -> connection.getMBeanCount()).isInstanceOf(IOException.class);
+		assertThat(guardedConnection.getState()).isEqualTo(GuardedConnection.CircuitState.OPEN);
+
+		await("Trial call allowed").ignoreExceptions().untilAsserted(() -> assertThat(connection.getMBeanCount()).isEqualTo(5));
+
+		assertThat(guardedConnection.getState()).isEqualTo(GuardedConnection.CircuitState.CLOSED);
+		assertThat(closings).hasValue(1);
+	}
+
+	@Test
+	void testApplicationErrorsAreNotFailures() throws Exception {
+		when(delegate.getMBeanInfo(any())).thenThrow(new InstanceNotFoundException());
+
+		for (int i = 0; i < 3; i++) {
+			assertThatThrownBy(() -> connection.getMBeanInfo(null)).isInstanceOf(InstanceNotFoundException.class);
+		}
+
+		assertThat(guardedConnection.getState()).isEqualTo(GuardedConnection.CircuitState.CLOSED);
+	}
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.Attribute;
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.metrics.OperationMetrics;
+
+class JmxCallMetricsTest {
+
+	private final JmxCallMetrics metrics = new JmxCallMetrics();
+	private final MBeanServerConnection connection = metrics.instrument(ManagementFactory.getPlatformMBeanServer());
+
+	@Test
+	void testCallsAreRecordedByOperation() throws Exception {
+		ObjectName memoryName = new ObjectName(ManagementFactory.MEMORY_MXBEAN_NAME);
+		Set<ObjectName> names = connection.queryNames(new ObjectName("java.lang:*"), null);
+		connection.getAttribute(memoryName, "Verbose");
+		connection.getAttribute(memoryName, "Verbose");
+		connection.setAttribute(memoryName, new Attribute("Verbose", false));
+		connection.invoke(memoryName, "gc", null, null);
+
+		Map<String, OperationMetrics.Snapshot> snapshot = metrics.snapshot();
+		assertThat(snapshot).containsOnlyKeys("queryNames", "Verbose", "setVerbose", "gc");
+		assertThat(snapshot.get("queryNames").latency().count()).isEqualTo(1);
+		assertThat(snapshot.get("queryNames").maxResponseSize()).isEqualTo(names.size());
+		assertThat(snapshot.get("Verbose").latency().count()).isEqualTo(2);
+		assertThat(snapshot.get("Verbose").meanResponseSize()).isEqualTo(1);
+		assertThat(snapshot.get("gc").maxResponseSize()).isZero();
+		assertThat(snapshot.values()).allSatisfy(operation -> assertThat(operation.failures()).isZero());
+	}
+
+	@Test
+	void testFailuresAreRecorded() throws Exception {
+		ObjectName memoryName = new ObjectName(ManagementFactory.MEMORY_MXBEAN_NAME);
+
+		assertThatThrownBy(() -> connection.getAttribute(memoryName, "Missing")).isInstanceOf(AttributeNotFoundException.class);
+
+		OperationMetrics.Snapshot missing = metrics.snapshot().get("Missing");
+		assertThat(missing.latency().count()).isEqualTo(1);
+		assertThat(missing.failures()).isEqualTo(1);
+	}
+
+	@Test
+	void testResponseSize() {
+		assertThat(OperationMetrics.responseSize(null)).isZero();
+		assertThat(OperationMetrics.responseSize("<xml/>")).isEqualTo(6);
+		assertThat(OperationMetrics.responseSize(List.of("a", "b"))).isEqualTo(2);
+		assertThat(OperationMetrics.responseSize(new String[3])).isEqualTo(3);
+		assertThat(OperationMetrics.responseSize(true)).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+
+import org.apache.camel.api.management.mbean.ManagedBacklogDebuggerMBean;
+import org.jolokia.client.J4pClient;
+import org.jolokia.client.exception.J4pBulkRemoteException;
+import org.jolokia.client.exception.J4pException;
+import org.jolokia.client.exception.J4pRemoteException;
+import org.jolokia.client.request.J4pExecResponse;
+import org.jolokia.client.request.J4pReadResponse;
+import org.jolokia.client.request.J4pResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.jmx.BacklogDebuggerPoller.SuspendedBreakpoints;
+import com.github.cameltooling.dap.internal.model.CamelExpression;
+
+class JolokiaBacklogDebuggerPollerTest {
+
+	private final J4pClient jolokiaClient = mock(J4pClient.class);
+	private final GuardedConnection guardedConnection = new GuardedConnection(mock(MBeanServerConnection.class), 100, 2, 5000,
+			mock(GuardedConnection.CircuitListener.class));
+	private final CountDownLatch stallReleased = new CountDownLatch(1);
+	private final JolokiaBacklogDebuggerPoller poller;
+
+	JolokiaBacklogDebuggerPollerTest() throws Exception {
+		poller = new JolokiaBacklogDebuggerPoller(jolokiaClient, new ObjectName("org.apache.camel:context=test,type=tracer,name=BacklogDebugger"), new JmxCallMetrics(),
+				guardedConnection);
+	}
+
+	@AfterEach
+	void tearDown() {
+		stallReleased.countDown();
+	}
+
+	@Test
+	void testPollInASingleBulkRequest() throws Exception {
+		doReturn(List.of(execResponse(List.of("log1", "log2")), readResponse(Map.of("BodyMaxChars", 1000L)), execResponse(List.of("exchange1"))))
+			.when(jolokiaClient).execute(anyList(), anyMap());
+
+		SuspendedBreakpoints suspendedBreakpoints = poller.poll(true);
+
+		assertThat(suspendedBreakpoints.nodeIds()).containsExactlyInAnyOrder("log1", "log2");
+		assertThat(suspendedBreakpoints.exchangeIds()).containsExactly("exchange1");
+		verify(jolokiaClient, times(1)).execute(anyList(), anyMap());
+	}
+
+	@Test
+	void testMissingExchangeIdsOperation() throws Exception {
+		J4pBulkRemoteException bulkException = new J4pBulkRemoteException(List.of(execResponse(List.of("log1")), readResponse(Map.of()),
+				mock(J4pRemoteException.class)));
+		when(jolokiaClient.execute(anyList(), anyMap())).thenThrow(bulkException);
+
+		SuspendedBreakpoints suspendedBreakpoints = poller.poll(true);
+
+		assertThat(suspendedBreakpoints.nodeIds()).containsExactly("log1");
+		assertThat(suspendedBreakpoints.exchangeIds()).isNull();
+	}
+
+	@Test
+	void testDumpInASingleBulkRequest() throws Exception {
+		doReturn(List.of(execResponse("<xml/>"))).when(jolokiaClient).execute(anyList(), anyMap());
+
+		Map<String, String> dumps = poller.dumpTracedMessages(List.of("log1"));
+
+		assertThat(dumps).containsEntry("log1", "<xml/>");
+		verify(jolokiaClient, times(1)).execute(anyList(), anyMap());
+	}
+
+	@Test
+	void testEvaluateInASingleBulkRequest() throws Exception {
+		CamelExpression body = CamelExpression.parse("${body}");
+		CamelExpression failing = CamelExpression.parse("${failing}");
+		J4pBulkRemoteException bulkException = new J4pBulkRemoteException(List.of(execResponse("a body"), mock(J4pRemoteException.class)));
+		when(jolokiaClient.execute(anyList(), anyMap())).thenThrow(bulkException);
+
+		Map<CamelExpression, String> results = poller.evaluate("log1", List.of(body, failing));
+
+		assertThat(results).containsExactly(entry(body, "a body"));
+		assertThat(poller.isBatching()).isTrue();
+		verify(jolokiaClient, times(1)).execute(anyList(), anyMap());
+	}
+
+	@Test
+	void testAttributesAnsweredFromLastPoll() throws Exception {
+		ManagedBacklogDebuggerMBean delegate = mock(ManagedBacklogDebuggerMBean.class);
+		ManagedBacklogDebuggerMBean backlogDebugger = poller.withPolledAttributes(delegate);
+		doReturn(List.of(execResponse(List.of()), readResponse(Map.of("BodyMaxChars", 1000L, "FallbackTimeout", 300L, "Enabled", true))))
+			.when(jolokiaClient).execute(anyList(), anyMap());
+
+		poller.poll(false);
+
+		assertThat(backlogDebugger.getBodyMaxChars()).isEqualTo(1000);
+		assertThat(backlogDebugger.getFallbackTimeout()).isEqualTo(300L);
+		assertThat(backlogDebugger.isEnabled()).isTrue();
+		verifyNoInteractions(delegate);
+	}
+
+	@Test
+	void testAttributesForgottenAfterAnOperation() throws Exception {
+		ManagedBacklogDebuggerMBean delegate = mock(ManagedBacklogDebuggerMBean.class);
+		when(delegate.getBodyMaxChars()).thenReturn(50);
+		ManagedBacklogDebuggerMBean backlogDebugger = poller.withPolledAttributes(delegate);
+		doReturn(List.of(execResponse(List.of()), readResponse(Map.of("BodyMaxChars", 1000L))))
+			.when(jolokiaClient).execute(anyList(), anyMap());
+		poller.poll(false);
+
+		backlogDebugger.setBodyMaxChars(50);
+
+		assertThat(backlogDebugger.getBodyMaxChars()).isEqualTo(50);
+		verify(delegate).setBodyMaxChars(50);
+	}
+
+	@Test
+	void testAttributesKeptAfterAReadOnlyOperation() throws Exception {
+		ManagedBacklogDebuggerMBean delegate = mock(ManagedBacklogDebuggerMBean.class);
+		ManagedBacklogDebuggerMBean backlogDebugger = poller.withPolledAttributes(delegate);
+		doReturn(List.of(execResponse(List.of()), readResponse(Map.of("BodyMaxChars", 1000L))))
+			.when(jolokiaClient).execute(anyList(), anyMap());
+		poller.poll(false);
+
+		backlogDebugger.dumpTracedMessagesAsXml("log1");
+		backlogDebugger.evaluateExpressionAtBreakpoint("log1", "simple", "${body}", String.class.getName());
+
+		assertThat(backlogDebugger.getBodyMaxChars()).isEqualTo(1000);
+		verify(delegate, never()).getBodyMaxChars();
+	}
+
+	@Test
+	void testStalledBulkRequestTimesOutAndOpensTheCircuit() throws Exception {
+		when(jolokiaClient.execute(anyList(), anyMap())).thenAnswer(invocation -> {
+			stallReleased.await();
+			return List.of();
+		});
+
+		for (int i = 0; i < 2; i++) {
+			assertThatThrownBy(() -> poller.poll(true)).hasCauseInstanceOf(DegradedConnectionException.class);
+		}
+
+		assertThat(guardedConnection.getState()).isEqualTo(GuardedConnection.CircuitState.OPEN);
+		// Rejected immediately without sending the request
+		assertThatThrownBy(() -> poller.dumpTracedMessages(List.of("log1"))).hasCauseInstanceOf(DegradedConnectionException.class);
+		verify(jolokiaClient, times(2)).execute(anyList(), anyMap());
+	}
+
+	@Test
+	void testSocketTimeoutOfBulkRequestIsDegraded() throws Exception {
+		when(jolokiaClient.execute(anyList(), anyMap())).thenThrow(new J4pException("IO-Error", new SocketTimeoutException("Read timed out")));
+
+		assertThatThrownBy(() -> poller.poll(true)).hasCauseInstanceOf(DegradedConnectionException.class);
+	}
+
+	private static J4pResponse<?> execResponse(Object value) {
+		J4pExecResponse response = mock(J4pExecResponse.class);
+		when(response.getValue()).thenReturn(value);
+		return response;
+	}
+
+	private static J4pResponse<?> readResponse(Map<String, Object> attributes) {
+		J4pReadResponse response = mock(J4pReadResponse.class);
+		when(response.getValue()).thenReturn(attributes);
+		return response;
+	}
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.jmx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerConnection;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.api.management.mbean.ManagedRouteMBean;
+import org.apache.camel.api.management.mbean.ManagedSuspendableRouteMBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RouteCatalogTest {
+
+	private final AtomicInteger introspections = new AtomicInteger();
+	private CamelContext context;
+	private RouteCatalog catalog;
+
+	@BeforeEach
+	void setup() throws Exception {
+		context = new DefaultCamelContext();
+		context.addRoutes(new RouteBuilder() {
+
+			@Override
+			public void configure() throws Exception {
+				from("direct:catalog1").routeId("catalogRoute1").log("Log from catalog 1");
+				from("direct:catalog2").routeId("catalogRoute2").log("Log from catalog 2");
+			}
+		});
+		context.start();
+		catalog = new RouteCatalog(countingIntrospections(ManagementFactory.getPlatformMBeanServer()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		context.stop();
+	}
+
+	private MBeanServerConnection countingIntrospections(MBeanServer mbeanServer) {
+		return (MBeanServerConnection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { MBeanServerConnection.class },
+				(proxy, method, args) -> {
+					if ("getMBeanInfo".equals(method.getName())) {
+						introspections.incrementAndGet();
+					}
+					try {
+						return method.invoke(mbeanServer, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+
+	@Test
+	void testRoutesAreIntrospectedOnlyOnce() throws Exception {
+		assertThat(catalog.refresh()).contains("catalogRoute1", "catalogRoute2");
+		int introspectionsAfterFirstRefresh = introspections.get();
+
+		assertThat(catalog.refresh()).contains("catalogRoute1", "catalogRoute2");
+		assertThat(introspections).hasValue(introspectionsAfterFirstRefresh);
+	}
+
+	@Test
+	void testGetRoute() throws Exception {
+		ManagedRouteMBean camelRoute = catalog.get("catalogRoute1");
+
+		assertThat(camelRoute).isInstanceOf(ManagedSuspendableRouteMBean.class);
+		assertThat(camelRoute.getRouteId()).isEqualTo("catalogRoute1");
+		assertThat(catalog.get("unknownRoute")).isNull();
+	}
+
+	@Test
+	void testRemovedRouteIsForgotten() throws Exception {
+		assertThat(catalog.refresh()).contains("catalogRoute1", "catalogRoute2");
+
+		context.getRouteController().stopRoute("catalogRoute2");
+		context.removeRoute("catalogRoute2");
+
+		assertThat(catalog.refresh()).contains("catalogRoute1").doesNotContain("catalogRoute2");
+		assertThat(catalog.get("catalogRoute2")).isNull();
+	}
+
+}
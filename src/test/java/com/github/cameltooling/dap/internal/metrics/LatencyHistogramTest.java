@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.metrics.LatencyHistogram.Snapshot;
+
+class LatencyHistogramTest {
+
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	@Test
+	void testEmptyHistogram() {
+		Snapshot snapshot = histogram.snapshot();
+		assertThat(snapshot.count()).isZero();
+		assertThat(snapshot.p99()).isZero();
+	}
+
+	@Test
+	void testPercentiles() {
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i, TimeUnit.MILLISECONDS);
+		}
+		Snapshot snapshot = histogram.snapshot();
+		assertThat(snapshot.count()).isEqualTo(1000);
+		assertThat(snapshot.mean()).isCloseTo(500.5, within(0.01));
+		assertThat(snapshot.p50()).isBetween(500d, 500 * 1.125);
+		assertThat(snapshot.p90()).isBetween(900d, 900 * 1.125);
+		assertThat(snapshot.p99()).isBetween(990d, 1000d);
+		assertThat(snapshot.max()).isEqualTo(1000d);
+	}
+
+	@Test
+	void testBucketsAreContiguous() {
+		for (long value = 0; value < 100_000; value++) {
+			int index = LatencyHistogram.bucketIndex(value);
+			assertThat(LatencyHistogram.bucketUpperBound(index)).isGreaterThanOrEqualTo(value);
+			if (index > 0) {
+				assertThat(LatencyHistogram.bucketUpperBound(index - 1)).isLessThan(value);
+			}
+		}
+		assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE)).isNotNegative();
+	}
+
+	@Test
+	void testSnapshotAndReset() {
+		histogram.record(5, TimeUnit.MILLISECONDS);
+		assertThat(histogram.snapshotAndReset().count()).isEqualTo(1);
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.snapshot().max()).isZero();
+	}
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.model.CamelExchangeThread.State;
+import com.github.cameltooling.dap.internal.types.EventMessage;
+
+class CamelExchangeThreadTest {
+
+	private final CamelExchangeThread thread = createThread();
+
+	@Test
+	void testSuspendedThreadCanStepOnlyOnce() {
+		assertThat(thread.getState()).isEqualTo(State.SUSPENDED);
+
+		assertThat(thread.startStepping()).isTrue();
+		assertThat(thread.startStepping()).isFalse();
+		assertThat(thread.startRunning()).isFalse();
+		assertThat(thread.isStepping()).isTrue();
+
+		assertThat(thread.stepCompleted()).isTrue();
+		assertThat(thread.getState()).isEqualTo(State.RUNNING);
+	}
+
+	@Test
+	void testSuspendedThreadCanBeResumedOnlyOnce() {
+		assertThat(thread.startRunning()).isTrue();
+		assertThat(thread.startRunning()).isFalse();
+		assertThat(thread.startStepping()).isFalse();
+		assertThat(thread.stepCompleted()).isFalse();
+		assertThat(thread.getState()).isEqualTo(State.RUNNING);
+	}
+
+	@Test
+	void testThreadSuspendedAgainBeforeEndOfStep() {
+		thread.startStepping();
+
+		assertThat(thread.suspend()).isTrue();
+		assertThat(thread.stepCompleted()).isFalse();
+		assertThat(thread.getState()).isEqualTo(State.SUSPENDED);
+		assertThat(thread.suspend()).isFalse();
+	}
+
+	private static CamelExchangeThread createThread() {
+		EventMessage eventMessage = new EventMessage();
+		eventMessage.setExchangeId("exchange-1");
+		return new CamelExchangeThread(1, "node-1", eventMessage, null);
+	}
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.api.management.mbean.ManagedBacklogDebuggerMBean;
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.model.scopes.CamelMessageScope;
+
+class CamelStackFrameTest {
+
+	private final ManagedBacklogDebuggerMBean debugger = mock(ManagedBacklogDebuggerMBean.class);
+	private final CamelStackFrame stackFrame = new CamelStackFrame(1, "node-1", null, null);
+
+	@Test
+	void testEvaluationCachedUntilNextStop() {
+		when(debugger.evaluateExpressionAtBreakpoint("node-1", "simple", "${body}", "java.lang.String")).thenReturn("a body", "another body");
+		CamelExpression expression = CamelExpression.parse("${body}");
+
+		assertThat(stackFrame.evaluate(expression, debugger)).isEqualTo("a body");
+		assertThat(stackFrame.evaluate(expression, debugger)).isEqualTo("a body");
+		verify(debugger, times(1)).evaluateExpressionAtBreakpoint("node-1", "simple", "${body}", "java.lang.String");
+
+		stackFrame.prefetch(debugger, Runnable::run);
+		assertThat(stackFrame.evaluate(expression, debugger)).isEqualTo("another body");
+		verify(debugger, times(2)).evaluateExpressionAtBreakpoint("node-1", "simple", "${body}", "java.lang.String");
+	}
+
+	@Test
+	void testUncachedEvaluationEvaluatedEachTime() {
+		when(debugger.evaluateExpressionAtBreakpoint("node-1", "simple", "${random(10)}", "java.lang.String")).thenReturn("3", "7");
+		CamelExpression expression = CamelExpression.parse("${random(10)}");
+
+		assertThat(stackFrame.evaluate(expression, debugger)).isEqualTo("3");
+		assertThat(stackFrame.evaluateUncached(expression, debugger)).isEqualTo("7");
+		verify(debugger, times(2)).evaluateExpressionAtBreakpoint("node-1", "simple", "${random(10)}", "java.lang.String");
+	}
+
+	@Test
+	void testFailedEvaluationNotCached() {
+		when(debugger.evaluateExpressionAtBreakpoint("node-1", "simple", "${body}", "java.lang.String"))
+			.thenThrow(new IllegalStateException("JMX call failed"))
+			.thenReturn("a body");
+		CamelExpression expression = CamelExpression.parse("${body}");
+
+		assertThatThrownBy(() -> stackFrame.evaluate(expression, debugger)).hasMessage("JMX call failed");
+		assertThat(stackFrame.evaluate(expression, debugger)).isEqualTo("a body");
+	}
+
+	@Test
+	void testEvaluationsPrefetchedInBatches() {
+		CamelExpression body = CamelExpression.parse("${body}");
+		CamelExpression header = CamelExpression.parse("header:aHeader");
+		CamelExpression failing = CamelExpression.parse("${failing}");
+		List<List<CamelExpression>> batches = new ArrayList<>();
+		stackFrame.prefetch(debugger, Runnable::run);
+		stackFrame.prefetchEvaluations(List.of(body, header, failing), batch -> {
+			batches.add(batch);
+			Map<CamelExpression, String> results = new HashMap<>();
+			batch.stream().filter(expression -> expression != failing).forEach(expression -> results.put(expression, "result of " + expression.expression()));
+			return results;
+		}, 2, Runnable::run);
+		when(debugger.evaluateExpressionAtBreakpoint("node-1", "simple", "${failing}", "java.lang.String")).thenReturn("evaluated again");
+
+		assertThat(batches).containsExactly(List.of(body, header), List.of(failing));
+		assertThat(stackFrame.evaluate(body, debugger)).isEqualTo("result of ${body}");
+		assertThat(stackFrame.evaluate(header, debugger)).isEqualTo("result of aHeader");
+		assertThat(stackFrame.evaluate(failing, debugger)).isEqualTo("evaluated again");
+		verify(debugger, times(1)).evaluateExpressionAtBreakpoint(anyString(), anyString(), anyString(), anyString());
+	}
+
+	@Test
+	void testOnlyFirstScopePrefetchedAndCancelledOnResume() {
+		List<Runnable> prefetchTasks = new ArrayList<>();
+		stackFrame.prefetch(debugger, prefetchTasks::add);
+		assertThat(prefetchTasks).hasSize(1);
+		assertThat(stackFrame.createScopes().iterator().next()).isInstanceOf(CamelMessageScope.class);
+
+		stackFrame.cancelPrefetch();
+		prefetchTasks.forEach(Runnable::run);
+		verify(debugger, never()).dumpTracedMessagesAsXml(anyString(), anyBoolean());
+	}
+
+	@Test
+	void testExpressionLanguage() {
+		assertThat(CamelExpression.parse("${body}")).isEqualTo(new CamelExpression("simple", "${body}"));
+		assertThat(CamelExpression.parse("jsonpath:$.name")).isEqualTo(new CamelExpression("jsonpath", "$.name"));
+		assertThat(CamelExpression.parse("Name: ${header.name}")).isEqualTo(new CamelExpression("simple", "Name: ${header.name}"));
+	}
+
+}
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class WatchExpressionsTest {
+
+	private final WatchExpressions watchExpressions = new WatchExpressions();
+
+	@Test
+	void testExpressionForgottenWhenNoLongerWatched() {
+		CamelExpression body = CamelExpression.parse("${body}");
+		CamelExpression header = CamelExpression.parse("${header.aHeader}");
+		watchExpressions.watched(body);
+		watchExpressions.watched(header);
+
+		for (int i = 0; i < WatchExpressions.STOPS_BEFORE_FORGOTTEN; i++) {
+			assertThat(watchExpressions.stopped()).containsExactlyInAnyOrder(body, header);
+			watchExpressions.watched(body);
+		}
+
+		assertThat(watchExpressions.stopped()).containsExactly(body);
+	}
+
+	@Test
+	void testNumberOfExpressionsBounded() {
+		for (int i = 0; i < 2 * WatchExpressions.MAX_EXPRESSIONS; i++) {
+			watchExpressions.watched(CamelExpression.parse("${header.header" + i + "}"));
+		}
+
+		assertThat(watchExpressions.stopped()).hasSize(WatchExpressions.MAX_EXPRESSIONS);
+	}
+
+}
@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.simulation;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Simulates the backlog debugger of Camel. The simulated exchanges are going through a programmed sequence of nodes:
+ * they are suspended on the first node having a breakpoint, stepping suspends them on the next node and resuming them
+ * suspends them on the next node having a breakpoint. As with Camel, only one exchange is suspended by node, the
+ * others are going through it. The conditions of the breakpoints are ignored and the expressions are not really
+ * evaluated, their result identifies the expression and the exchange.
+ */
+public class SimulatedBacklogDebugger extends SimulatedMBean {
+
+	private final Set<String> breakpoints = ConcurrentHashMap.newKeySet();
+	private final Map<String, SimulatedExchange> suspendedExchanges = new ConcurrentHashMap<>();
+	private final AtomicLong exchangeCounter = new AtomicLong();
+	private final AtomicLong messageCounter = new AtomicLong();
+	private final AtomicInteger completedExchanges = new AtomicInteger();
+	private volatile boolean enabled;
+	private volatile String body = "";
+
+	SimulatedBacklogDebugger(String camelId) {
+		attribute("CamelId", camelId);
+		attribute("LoggingLevel", "INFO");
+		attribute("BodyMaxChars", 131072);
+		attribute("FallbackTimeout", 300L);
+	}
+
+	/**
+	 * @param size the number of characters of the body of the messages dumped for the suspended exchanges
+	 */
+	public void setMessageSize(int size) {
+		body = "b".repeat(size);
+	}
+
+	/**
+	 * @param routeId the id of the route of the exchange
+	 * @param nodeIds the ids of the nodes the exchange is going through, in order
+	 * @return the id of the new exchange
+	 */
+	public String send(String routeId, List<String> nodeIds) {
+		String exchangeId = String.format("SIMULATED-%016d", exchangeCounter.incrementAndGet());
+		advance(new SimulatedExchange(exchangeId, routeId, List.copyOf(nodeIds), -1), false);
+		return exchangeId;
+	}
+
+	private void advance(SimulatedExchange exchange, boolean step) {
+		for (int position = exchange.position() + 1; position < exchange.nodeIds().size(); position++) {
+			String nodeId = exchange.nodeIds().get(position);
+			boolean suspend = enabled && (step || breakpoints.contains(nodeId));
+			if (suspend && suspendedExchanges.putIfAbsent(nodeId, exchange.at(position)) == null) {
+				return;
+			}
+		}
+		completedExchanges.incrementAndGet();
+	}
+
+	private void resume(String nodeId, boolean step) {
+		SimulatedExchange exchange = suspendedExchanges.remove(nodeId);
+		if (exchange != null) {
+			advance(exchange, step);
+		}
+	}
+
+	private void resumeAll() {
+		// The resumed exchanges can be suspended again on the next breakpoints, they stay suspended there
+		for (String nodeId : List.copyOf(suspendedExchanges.keySet())) {
+			resume(nodeId, false);
+		}
+	}
+
+	public Set<String> getBreakpoints() {
+		return new HashSet<>(breakpoints);
+	}
+
+	public Set<String> getSuspendedNodeIds() {
+		return new HashSet<>(suspendedExchanges.keySet());
+	}
+
+	public int getCompletedExchangeCount() {
+		return completedExchanges.get();
+	}
+
+	@Override
+	protected Object operation(Method method, Object[] args) throws Exception {
+		switch (method.getName()) {
+		case "enableDebugger":
+			enabled = true;
+			return null;
+		case "disableDebugger":
+			enabled = false;
+			resumeAll();
+			return null;
+		case "isEnabled":
+			return enabled;
+		case "addBreakpoint", "addConditionalBreakpoint":
+			breakpoints.add((String) args[0]);
+			return null;
+		case "removeBreakpoint":
+			breakpoints.remove(args[0]);
+			return null;
+		case "removeAllBreakpoints":
+			breakpoints.clear();
+			return null;
+		case "getBreakpoints":
+			return getBreakpoints();
+		case "suspendedBreakpointNodeIds":
+			return getSuspendedNodeIds();
+		case "suspendedBreakpointExchangeIds":
+			return suspendedExchanges.values().stream().map(SimulatedExchange::exchangeId).collect(Collectors.toSet());
+		case "dumpTracedMessagesAsXml":
+			return dumpTracedMessage((String) args[0]);
+		case "resumeBreakpoint":
+			resume((String) args[0], false);
+			return null;
+		case "stepBreakpoint":
+			if (args.length == 1) {
+				resume((String) args[0], true);
+			}
+			return null;
+		case "resumeAll":
+			resumeAll();
+			return null;
+		case "evaluateExpressionAtBreakpoint":
+			return evaluate((String) args[0], (String) args[2]);
+		default:
+			return super.operation(method, args);
+		}
+	}
+
+	/**
+	 * @return a result identifying the expression and the exchange it is evaluated on
+	 */
+	private String evaluate(String nodeId, String expression) {
+		SimulatedExchange exchange = suspendedExchanges.get(nodeId);
+		return exchange != null ? expression + " on " + exchange.exchangeId() : null;
+	}
+
+	private String dumpTracedMessage(String nodeId) {
+		SimulatedExchange exchange = suspendedExchanges.get(nodeId);
+		if (exchange == null) {
+			return null;
+		}
+		return """
+				<backlogTracerEventMessage>
+				  <uid>%d</uid>
+				  <first>false</first>
+				  <last>false</last>
+				  <rest>false</rest>
+				  <template>false</template>
+				  <timestamp>2024-01-01T00:00:00.000+0000</timestamp>
+				  <elapsed>1</elapsed>
+				  <threadName>Simulated thread</threadName>
+				  <done>false</done>
+				  <failed>false</failed>
+				  <routeId>%s</routeId>
+				  <toNode>%s</toNode>
+				  <exchangeId>%s</exchangeId>
+				  <message exchangeId="%s" exchangePattern="InOnly" exchangeType="org.apache.camel.support.DefaultExchange" messageType="org.apache.camel.support.DefaultMessage">
+				    <exchangeProperties>
+				      <exchangeProperty key="CamelToEndpoint" type="java.lang.String">direct://%s</exchangeProperty>
+				    </exchangeProperties>
+				    <headers>
+				      <header key="simulated" type="java.lang.Boolean">true</header>
+				    </headers>
+				    <exchangeVariables>
+				      <exchangeVariable key="position" type="java.lang.Integer">%d</exchangeVariable>
+				    </exchangeVariables>
+				    <body type="java.lang.String">%s</body>
+				  </message>
+				</backlogTracerEventMessage>
+				""".formatted(messageCounter.incrementAndGet(), exchange.routeId(), nodeId, exchange.exchangeId(),
+						exchange.exchangeId(), exchange.routeId(), exchange.position(), body);
+	}
+
+	/**
+	 * @param position the index of the node on which the exchange is, -1 before the first one
+	 */
+	private record SimulatedExchange(String exchangeId, String routeId, List<String> nodeIds, int position) {
+
+		SimulatedExchange at(int newPosition) {
+			return new SimulatedExchange(exchangeId, routeId, nodeIds, newPosition);
+		}
+	}
+
+}
@@ -0,0 +1,211 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.simulation;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+import javax.management.remote.MBeanServerForwarder;
+
+import org.apache.camel.api.management.mbean.ManagedBacklogDebuggerMBean;
+import org.apache.camel.api.management.mbean.ManagedCamelContextMBean;
+import org.apache.camel.api.management.mbean.ManagedRouteMBean;
+import org.eclipse.lsp4j.debug.SetBreakpointsArguments;
+import org.eclipse.lsp4j.debug.Source;
+import org.eclipse.lsp4j.debug.SourceBreakpoint;
+
+/**
+ * Stands in for a Camel application: the MBeans of a Camel context, of its routes and of its backlog debugger are
+ * simulated in a dedicated MBean server, exposed with an RMI connector. The debug adapter is attached to it with the
+ * JMX URL returned by {@link #start()}.
+ * <p>
+ * The routes are generated, each one is made of nodes on consecutive lines. The latency of the remote calls, the size
+ * of the messages and the nodes on which the exchanges are suspended are programmed, so that the measures done with it
+ * are reproducible and are not depending on the load of a real Camel context.
+ */
+public class SimulatedCamelApplication implements AutoCloseable {
+
+	public static final String CAMEL_ID = "simulated";
+	public static final String ROUTES_FILE = "simulated-routes.xml";
+
+	private final MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+	private final SimulatedBacklogDebugger debugger = new SimulatedBacklogDebugger(CAMEL_ID);
+	private final Map<String, List<String>> nodeIdsByRouteId = new LinkedHashMap<>();
+	private final Map<String, Integer> lineByNodeId = new HashMap<>();
+	private final String routesXml;
+	private final Random random = new Random(0);
+	private volatile SimulatedLatency latency = SimulatedLatency.NONE;
+	private JMXConnectorServer connectorServer;
+
+	/**
+	 * @param routeCount the number of routes of the Camel context
+	 * @param nodesPerRoute the number of nodes of each route, after its consumer
+	 */
+	public SimulatedCamelApplication(int routeCount, int nodesPerRoute) {
+		List<String> lines = new ArrayList<>();
+		lines.add("<routes xmlns=\"http://camel.apache.org/schema/spring\">");
+		for (int i = 0; i < routeCount; i++) {
+			String routeId = getRouteId(i);
+			lines.add(String.format("    <route id=\"%s\" sourceLocation=\"%s\" sourceLineNumber=\"%d\">", routeId, ROUTES_FILE, lines.size() + 1));
+			lines.add(String.format("        <from id=\"%s-from\" uri=\"direct:%s\" sourceLineNumber=\"%d\"/>", routeId, routeId, lines.size() + 1));
+			List<String> nodeIds = new ArrayList<>();
+			for (int j = 0; j < nodesPerRoute; j++) {
+				String nodeId = routeId + "-node-" + j;
+				nodeIds.add(nodeId);
+				lineByNodeId.put(nodeId, lines.size() + 1);
+				lines.add(String.format("        <log id=\"%s\" message=\"node %d of %s\" sourceLineNumber=\"%d\"/>", nodeId, j, routeId, lines.size() + 1));
+			}
+			lines.add("    </route>");
+			nodeIdsByRouteId.put(routeId, nodeIds);
+		}
+		lines.add("</routes>");
+		routesXml = String.join("\n", lines);
+	}
+
+	/**
+	 * Registers the MBeans and starts the connector.
+	 *
+	 * @return the JMX URL to connect to the simulated application
+	 */
+	public String start() throws IOException, JMException {
+		new SimulatedCamelContext(CAMEL_ID, routesXml).register(mbeanServer,
+				new ObjectName("org.apache.camel:context=" + CAMEL_ID + ",type=context,name=" + ObjectName.quote(CAMEL_ID)),
+				ManagedCamelContextMBean.class);
+		for (String routeId : nodeIdsByRouteId.keySet()) {
+			new SimulatedRoute(CAMEL_ID, routeId).register(mbeanServer,
+					new ObjectName("org.apache.camel:context=" + CAMEL_ID + ",type=routes,name=" + ObjectName.quote(routeId)),
+					ManagedRouteMBean.class);
+		}
+		debugger.register(mbeanServer, new ObjectName("org.apache.camel:context=" + CAMEL_ID + ",type=tracer,name=BacklogDebugger"),
+				ManagedBacklogDebuggerMBean.class);
+		connectorServer = JMXConnectorServerFactory.newJMXConnectorServer(new JMXServiceURL("service:jmx:rmi://localhost"), null, mbeanServer);
+		connectorServer.setMBeanServerForwarder((MBeanServerForwarder) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { MBeanServerForwarder.class }, new LatencyForwarder()));
+		connectorServer.start();
+		return connectorServer.getAddress().toString();
+	}
+
+	/**
+	 * @param latency the latency added to each remote call, it can be changed while the debug adapter is connected
+	 */
+	public void setLatency(SimulatedLatency latency) {
+		this.latency = latency;
+	}
+
+	/**
+	 * @param size the number of characters of the body of the messages of the suspended exchanges
+	 */
+	public void setMessageSize(int size) {
+		debugger.setMessageSize(size);
+	}
+
+	public static String getRouteId(int index) {
+		return "route-" + index;
+	}
+
+	public List<String> getNodeIds(String routeId) {
+		return nodeIdsByRouteId.get(routeId);
+	}
+
+	/**
+	 * @return the line of the node in {@link #ROUTES_FILE}, as declared in the definition of the routes
+	 */
+	public int getLine(String nodeId) {
+		return lineByNodeId.get(nodeId);
+	}
+
+	/**
+	 * @param nodeIds the nodes on which breakpoints are set
+	 * @return the arguments of the setBreakpoints request for the lines of the nodes in {@link #ROUTES_FILE}
+	 */
+	public SetBreakpointsArguments createSetBreakpointsArguments(List<String> nodeIds) {
+		Source source = new Source();
+		source.setPath(ROUTES_FILE);
+		SetBreakpointsArguments setBreakpointsArguments = new SetBreakpointsArguments();
+		setBreakpointsArguments.setSource(source);
+		setBreakpointsArguments.setBreakpoints(nodeIds.stream().map(nodeId -> {
+			SourceBreakpoint breakpoint = new SourceBreakpoint();
+			breakpoint.setLine(getLine(nodeId));
+			return breakpoint;
+		}).toArray(SourceBreakpoint[]::new));
+		return setBreakpointsArguments;
+	}
+
+	/**
+	 * @param routeId the route in which an exchange is sent, it goes through all its nodes
+	 * @return the id of the exchange
+	 */
+	public String send(String routeId) {
+		return debugger.send(routeId, getNodeIds(routeId));
+	}
+
+	public SimulatedBacklogDebugger getDebugger() {
+		return debugger;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (connectorServer != null) {
+			connectorServer.stop();
+		}
+	}
+
+	/**
+	 * Adds the simulated latency to all the remote calls, including the queries of the MBean names and of their
+	 * descriptions.
+	 */
+	private class LatencyForwarder implements InvocationHandler {
+
+		private MBeanServer delegate;
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if ("getMBeanServer".equals(method.getName())) {
+				return delegate;
+			}
+			if ("setMBeanServer".equals(method.getName())) {
+				delegate = (MBeanServer) args[0];
+				return null;
+			}
+			if (method.getDeclaringClass() != Object.class) {
+				latency.pause(random);
+			}
+			try {
+				return method.invoke(delegate, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+}
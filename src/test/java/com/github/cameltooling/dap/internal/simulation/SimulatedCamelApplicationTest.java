@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.eclipse.lsp4j.debug.ContinueArguments;
+import org.eclipse.lsp4j.debug.NextArguments;
+import org.eclipse.lsp4j.debug.TerminateArguments;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.cameltooling.dap.internal.BaseTest;
+import com.github.cameltooling.dap.internal.metrics.OperationMetrics;
+import com.github.cameltooling.dap.internal.model.variables.message.MessageBodyCamelVariable;
+
+class SimulatedCamelApplicationTest extends BaseTest {
+
+	private SimulatedCamelApplication application;
+
+	@AfterEach
+	void closeApplication() throws Exception {
+		// The debug adapter is detached before the simulated application disappears
+		if (server != null) {
+			server.terminate(new TerminateArguments()).get();
+			server = null;
+		}
+		if (application != null) {
+			application.close();
+		}
+	}
+
+	@Test
+	void testDebuggingSimulatedApplication() throws Exception {
+		application = new SimulatedCamelApplication(10, 3);
+		application.setMessageSize(1000);
+		String jmxUrl = application.start();
+		initDebugger();
+		attachWithJMXURL(server, jmxUrl);
+		String routeId = SimulatedCamelApplication.getRouteId(2);
+		List<String> nodeIds = application.getNodeIds(routeId);
+		server.setBreakpoints(application.createSetBreakpointsArguments(List.of(nodeIds.get(0)))).get();
+		assertThat(application.getDebugger().getBreakpoints()).containsExactly(nodeIds.get(0));
+
+		application.send(routeId);
+		waitBreakpointNotification(1);
+		await().untilAsserted(() -> assertThat(clientProxy.getAllStacksAndVars().get(0).getVariables())
+				.anySatisfy(variable -> {
+					assertThat(variable.getName()).isEqualTo(MessageBodyCamelVariable.NAME);
+					assertThat(variable.getValue()).hasSize(1000);
+				}));
+
+		NextArguments nextArguments = new NextArguments();
+		nextArguments.setThreadId(clientProxy.getStoppedEventArguments().get(0).getThreadId());
+		server.next(nextArguments);
+		waitBreakpointNotification(2);
+		assertThat(application.getDebugger().getSuspendedNodeIds()).containsExactly(nodeIds.get(1));
+
+		server.continue_(new ContinueArguments());
+		await().untilAsserted(() -> assertThat(application.getDebugger().getCompletedExchangeCount()).isEqualTo(1));
+	}
+
+	@Test
+	void testSimulatedLatency() throws Exception {
+		application = new SimulatedCamelApplication(1, 1);
+		application.setLatency(new SimulatedLatency(Duration.ofMillis(20), Duration.ofMillis(5)));
+		String jmxUrl = application.start();
+		initDebugger();
+		attachWithJMXURL(server, jmxUrl);
+
+		await().untilAsserted(() -> {
+			OperationMetrics.Snapshot polls = server.getConnectionManager().getJmxCallMetrics().snapshot().get("suspendedBreakpointNodeIds");
+			assertThat(polls).isNotNull();
+			assertThat(polls.latency().p50()).isGreaterThanOrEqualTo(20);
+		});
+	}
+
+}
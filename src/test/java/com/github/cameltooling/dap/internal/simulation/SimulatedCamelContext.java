@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.simulation;
+
+import java.lang.reflect.Method;
+
+/**
+ * Simulates the MBean of a Camel context, which provides the definition of the routes.
+ */
+class SimulatedCamelContext extends SimulatedMBean {
+
+	private final String routesXml;
+
+	SimulatedCamelContext(String camelId, String routesXml) {
+		this.routesXml = routesXml;
+		attribute("CamelId", camelId);
+		attribute("State", "Started");
+	}
+
+	@Override
+	protected Object operation(Method method, Object[] args) throws Exception {
+		if ("dumpRoutesAsXml".equals(method.getName())) {
+			return routesXml;
+		}
+		return super.operation(method, args);
+	}
+
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.simulation;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Duration added to each remote JMX call handled by a {@link SimulatedCamelApplication}, to reproduce the round trips
+ * of a remote connection. The jitter is drawn uniformly between 0 and its value.
+ */
+public record SimulatedLatency(Duration latency, Duration jitter) {
+
+	public static final SimulatedLatency NONE = new SimulatedLatency(Duration.ZERO, Duration.ZERO);
+	/** Round trip on a local network */
+	public static final SimulatedLatency LAN = new SimulatedLatency(Duration.ofMillis(1), Duration.ofMillis(1));
+	/** Round trip to an application running in a remote data center */
+	public static final SimulatedLatency WAN = new SimulatedLatency(Duration.ofMillis(40), Duration.ofMillis(20));
+
+	void pause(Random random) {
+		long nanos = latency.toNanos();
+		if (!jitter.isZero()) {
+			nanos += (long) (random.nextDouble() * jitter.toNanos());
+		}
+		if (nanos > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(nanos);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+}
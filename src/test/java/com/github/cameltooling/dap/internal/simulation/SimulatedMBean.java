@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.simulation;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Implements an MBean interface of Camel with a proxy, so that only the operations used by the debug adapter have to
+ * be simulated. The attributes which are set are stored and returned by their getters, the other methods are
+ * returning the default value of their type.
+ */
+abstract class SimulatedMBean implements InvocationHandler {
+
+	private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+	protected void attribute(String name, Object value) {
+		attributes.put(name, value);
+	}
+
+	<T> void register(MBeanServer mbeanServer, ObjectName name, Class<T> mbeanInterface) throws JMException {
+		T implementation = mbeanInterface.cast(Proxy.newProxyInstance(mbeanInterface.getClassLoader(), new Class<?>[] { mbeanInterface }, this));
+		mbeanServer.registerMBean(new StandardMBean(implementation, mbeanInterface), name);
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		Object[] arguments = args != null ? args : new Object[0];
+		try {
+			if (method.getDeclaringClass() == Object.class) {
+				return method.invoke(this, arguments);
+			}
+			return operation(method, arguments);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * @param method the method of the MBean interface which is called
+	 * @param args the arguments of the call, empty when there is none
+	 * @return the result of the call
+	 */
+	protected Object operation(Method method, Object[] args) throws Exception {
+		String name = method.getName();
+		if (name.startsWith("set") && args.length == 1) {
+			if (args[0] != null) {
+				attributes.put(name.substring(3), args[0]);
+			} else {
+				attributes.remove(name.substring(3));
+			}
+			return null;
+		}
+		String attribute = null;
+		if (name.startsWith("get") && args.length == 0) {
+			attribute = name.substring(3);
+		} else if (name.startsWith("is") && args.length == 0) {
+			attribute = name.substring(2);
+		}
+		if (attribute != null && attributes.containsKey(attribute)) {
+			return attributes.get(attribute);
+		}
+		return defaultValue(method.getReturnType());
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type.isPrimitive() && type != void.class) {
+			return Array.get(Array.newInstance(type, 1), 0);
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.simulation;
+
+import java.lang.reflect.Method;
+
+/**
+ * Simulates the MBean of a Camel route, its state is updated when it is started, stopped, suspended or resumed.
+ */
+class SimulatedRoute extends SimulatedMBean {
+
+	SimulatedRoute(String camelId, String routeId) {
+		attribute("CamelId", camelId);
+		attribute("RouteId", routeId);
+		attribute("State", "Started");
+	}
+
+	@Override
+	protected Object operation(Method method, Object[] args) throws Exception {
+		switch (method.getName()) {
+		case "start", "resume":
+			attribute("State", "Started");
+			return null;
+		case "stop":
+			attribute("State", "Stopped");
+			return method.getReturnType() == boolean.class ? Boolean.TRUE : null;
+		case "suspend":
+			attribute("State", "Suspended");
+			return null;
+		default:
+			return super.operation(method, args);
+		}
+	}
+
+}
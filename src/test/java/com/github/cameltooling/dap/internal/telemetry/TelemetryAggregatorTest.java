@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.cameltooling.dap.internal.telemetry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TelemetryAggregatorTest {
+
+	private final List<TelemetryEvent> sentEvents = new ArrayList<>();
+
+	@Test
+	void testEventsAreCountedByNameAndProperties() {
+		TelemetryAggregator aggregator = new TelemetryAggregator(sentEvents::add, 10);
+		aggregator.record("camel.dap.step", Map.of("kind", "next"));
+		aggregator.record("camel.dap.step", Map.of("kind", "next"));
+		aggregator.record("camel.dap.step", Map.of("kind", "stepIn"));
+		aggregator.record("camel.dap.continue", Map.of());
+		assertThat(sentEvents).isEmpty();
+
+		aggregator.flush();
+
+		assertThat(sentEvents).extracting(event -> event.name, event -> event.properties)
+			.containsExactlyInAnyOrder(
+				tuple("camel.dap.step", Map.of("kind", "next", TelemetryAggregator.PROPERTY_COUNT, 2L)),
+				tuple("camel.dap.step", Map.of("kind", "stepIn", TelemetryAggregator.PROPERTY_COUNT, 1L)),
+				tuple("camel.dap.continue", Map.of(TelemetryAggregator.PROPERTY_COUNT, 1L)));
+		assertThat(aggregator.getCountedEventsSize()).isZero();
+	}
+
+	@Test
+	void testOccurrencesAreCountedBeyondCapacity() {
+		TelemetryAggregator aggregator = new TelemetryAggregator(sentEvents::add, 2);
+		for (int i = 0; i < 5000; i++) {
+			assertThat(aggregator.record("camel.dap.step", Map.of())).isTrue();
+		}
+
+		aggregator.flush();
+
+		assertThat(sentEvents).singleElement()
+			.satisfies(event -> assertThat(event.properties).containsEntry(TelemetryAggregator.PROPERTY_COUNT, 5000L));
+	}
+
+	@Test
+	void testNewEventsAreDroppedWhenCapacityIsReached() {
+		TelemetryAggregator aggregator = new TelemetryAggregator(sentEvents::add, 1);
+		assertThat(aggregator.record("camel.dap.step", Map.of())).isTrue();
+		assertThat(aggregator.record("camel.dap.step", Map.of())).isTrue();
+		assertThat(aggregator.record("camel.dap.continue", Map.of())).isFalse();
+		assertThat(aggregator.record("camel.dap.continue", Map.of())).isFalse();
+
+		aggregator.flush();
+
+		assertThat(sentEvents).hasSize(2);
+		assertThat(sentEvents.get(0).name).isEqualTo("camel.dap.step");
+		assertThat(sentEvents.get(0).properties).containsEntry(TelemetryAggregator.PROPERTY_COUNT, 2L);
+		assertThat(sentEvents.get(1).name).isEqualTo(TelemetryAggregator.EVENT_DROPPED);
+		assertThat(sentEvents.get(1).properties).containsEntry(TelemetryAggregator.PROPERTY_COUNT, 2L);
+
+		sentEvents.clear();
+		aggregator.flush();
+		assertThat(sentEvents).isEmpty();
+	}
+
+	@Test
+	void testSendNowIsNotDelayed() {
+		TelemetryAggregator aggregator = new TelemetryAggregator(sentEvents::add, 2);
+		aggregator.sendNow("camel.dap.attach", Map.of("success", true));
+
+		assertThat(sentEvents).singleElement().satisfies(event -> assertThat(event.properties).isEqualTo(Map.of("success", true)));
+	}
+
+}